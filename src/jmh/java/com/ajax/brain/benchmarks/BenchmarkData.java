@@ -0,0 +1,136 @@
+package com.ajax.brain.benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Creates the inputs of the benchmarks
+ * Every input comes from a fixed seed so every run and every fork measures the same data
+ */
+final class BenchmarkData {
+    /**
+     * The seed of every input
+     */
+    private static final long SEED = 0x5EED;
+
+    /**
+     * Common English words, the conjunctions are matched by the English matchers
+     */
+    private static final String[] WORDS = {
+            "the", "of", "and", "to", "a", "in", "is", "it", "you", "that", "he", "was", "for", "on", "are", "with",
+            "as", "they", "be", "at", "one", "have", "this", "from", "or", "had", "by", "word", "but", "what", "some",
+            "we", "can", "out", "other", "were", "all", "there", "when", "up", "use", "your", "how", "said", "an",
+            "each", "she", "which", "do", "their", "time", "if", "will", "way", "about", "many", "then", "them",
+            "either", "neither", "so", "yet", "nor", "apples", "oranges", "bananas", "store", "produce", "12", "1984"
+    };
+
+    /**
+     * The characters that end a word in the generated text and how often they do
+     */
+    private static final String[] SEPARATORS = {" ", " ", " ", " ", " ", " ", " ", " ", ", ", "; ", ": ", ". ", "! ", "? "};
+
+    private BenchmarkData() {}
+
+    /**
+     * Creates English like text
+     *
+     * @param length the number of characters, the text is cut at a word boundary close to it
+     * @return the text
+     */
+    static String englishText(int length) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        StringBuilder text = new StringBuilder(length + 16);
+
+        while(text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns words to match, both ones the English matchers match and ones they don't
+     *
+     * @return the words
+     */
+    static String[] words() {
+        return WORDS.clone();
+    }
+
+    /**
+     * How the values of an array are ordered
+     */
+    enum Distribution {
+        /**
+         * Uniformly random values
+         */
+        RANDOM,
+
+        /**
+         * Values in ascending order
+         */
+        SORTED,
+
+        /**
+         * Values in descending order
+         */
+        REVERSED,
+
+        /**
+         * Sorted values with about one in a hundred swapped with a random other value
+         */
+        NEARLY_SORTED,
+
+        /**
+         * Random values from only 16 different ones
+         */
+        FEW_UNIQUE
+    }
+
+    /**
+     * Creates values to sort
+     *
+     * @param size the number of values
+     * @param distribution how the values are ordered
+     * @return the values
+     */
+    static Integer[] integers(int size, Distribution distribution) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Integer[] values = new Integer[size];
+
+        switch (distribution) {
+            case FEW_UNIQUE:
+                for(int x = 0; x < size; x++) {
+                    values[x] = random.nextInt(16) * 1000;
+                }
+                return values;
+            case RANDOM:
+                for(int x = 0; x < size; x++) {
+                    values[x] = random.nextInt(Integer.MAX_VALUE);
+                }
+                return values;
+        }
+
+        for(int x = 0; x < size; x++) {
+            values[x] = random.nextInt(Integer.MAX_VALUE);
+        }
+        Arrays.sort(values);
+
+        if(distribution == Distribution.REVERSED) {
+            for(int x = 0, y = size - 1; x < y; x++, y--) {
+                Integer temp = values[x];
+                values[x] = values[y];
+                values[y] = temp;
+            }
+        } else if(distribution == Distribution.NEARLY_SORTED) {
+            for(int swaps = Math.max(size / 100, 1); swaps > 0 && size > 1; swaps--) {
+                int x = random.nextInt(size);
+                int y = random.nextInt(size);
+                Integer temp = values[x];
+                values[x] = values[y];
+                values[y] = temp;
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ajax.brain.benchmarks;
+
+import com.ajax.brain.utils.sorts.IntSort;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts the same values as {@link SortBenchmark} as an {@code int[]} to compare against sorting boxed values
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntSortBenchmark {
+    @Param({"QuickSort", "MergeSort", "RadixSort", "Arrays"})
+    public String sort;
+
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "NEARLY_SORTED", "FEW_UNIQUE"})
+    public BenchmarkData.Distribution distribution;
+
+    private IntSort sorter;
+
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        values = Arrays.stream(BenchmarkData.integers(size, distribution)).mapToInt(Integer::intValue).toArray();
+
+        switch (sort) {
+            case "QuickSort": sorter = IntSort.getQuickSort(); break;
+            case "MergeSort": sorter = IntSort.getMergeSort(); break;
+            case "RadixSort": sorter = IntSort.getRadixSort(); break;
+            case "Arrays": sorter = null; break; //java.util.Arrays.sort as the baseline
+            default: throw new IllegalArgumentException("Unknown sort " + sort);
+        }
+    }
+
+    @Benchmark
+    public int[] sort() {
+        int[] copy = values.clone();
+        if(sorter == null)
+            Arrays.sort(copy);
+        else
+            sorter.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ajax.brain.benchmarks;
+
+import com.ajax.brain.linguist.CompiledMatcherSet;
+import com.ajax.brain.linguist.Lexer;
+import com.ajax.brain.linguist.MatcherList;
+import com.ajax.brain.linguist.Token;
+import com.ajax.brain.linguist.en.EnglishMatchers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexes English text of different sizes
+ * The {@code Matcher}s are compiled once, every invocation creates and runs a new {@code Lexer} like a caller would
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+    /**
+     * The size of the text, 1 KB, 64 KB and 4 MB
+     */
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public String size;
+
+    private String text;
+
+    private byte[] bytes;
+
+    private CompiledMatcherSet matchers;
+
+    @Setup
+    public void setup() {
+        int length;
+        switch (size) {
+            case "SMALL": length = 1 << 10; break;
+            case "MEDIUM": length = 1 << 16; break;
+            case "LARGE": length = 1 << 22; break;
+            default: throw new IllegalArgumentException("Unknown size " + size);
+        }
+
+        text = BenchmarkData.englishText(length);
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+        matchers = new MatcherList(EnglishMatchers.getDefaultInstance().getMatchers()).freeze();
+    }
+
+    @Benchmark
+    public Lexer lexString() throws IOException {
+        Lexer lexer = new Lexer(text, matchers);
+        lexer.lex();
+        return lexer;
+    }
+
+    @Benchmark
+    public Lexer lexInputStream() throws IOException {
+        Lexer lexer = new Lexer(new ByteArrayInputStream(bytes), matchers);
+        lexer.lex();
+        return lexer;
+    }
+
+    /**
+     * Lexes and reads every token's value, which decodes the values that are still bytes
+     */
+    @Benchmark
+    public void lexAndReadValues(Blackhole blackhole) throws IOException {
+        Lexer lexer = new Lexer(text, matchers);
+        lexer.lex();
+        for(Token token: lexer) {
+            blackhole.consume(token.getValue());
+        }
+    }
+}
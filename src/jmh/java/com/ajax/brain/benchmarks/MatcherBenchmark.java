@@ -0,0 +1,69 @@
+package com.ajax.brain.benchmarks;
+
+import com.ajax.brain.linguist.Matcher;
+import com.ajax.brain.linguist.TokenType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches a set of words and characters with every kind of {@code Matcher}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+    @Param({"SIMPLE", "IGNORE_CASE", "MULTI_WORD", "REGEX", "DIGIT", "CHARACTER", "MULTI_CHARACTER", "WHITESPACE"})
+    public String kind;
+
+    private Matcher matcher;
+
+    /**
+     * The words, and the characters of the words, to match
+     */
+    private String[] inputs;
+
+    @Setup
+    public void setup() {
+        switch (kind) {
+            case "SIMPLE": matcher = Matcher.getSimpleMatcher("the", 1, TokenType.WORD, false); break;
+            case "IGNORE_CASE": matcher = Matcher.getSimpleMatcher("THE", 1, TokenType.WORD, true); break;
+            case "MULTI_WORD": matcher = Matcher.getMultiWordMatcher(1, TokenType.COORDINATING_CONJUNCTION, true, "and", "or", "but", "for", "so", "yet", "nor"); break;
+            case "REGEX": matcher = Matcher.getRegexMatcher(1, TokenType.WORD, false, "^[a-z]+s$"); break;
+            case "DIGIT": matcher = Matcher.getDigitMatcher(1, TokenType.NUMBER); break;
+            case "CHARACTER": matcher = Matcher.getCharacterMatcher(',', 1, TokenType.LIST_SEPARATOR); break;
+            case "MULTI_CHARACTER": matcher = Matcher.getMultiCharacterMatcher(1, TokenType.PUNCTUATION, '.', '!', '?'); break;
+            case "WHITESPACE": matcher = Matcher.getWhitespaceMatcher(); break;
+            default: throw new IllegalArgumentException("Unknown matcher " + kind);
+        }
+
+        String[] words = BenchmarkData.words();
+        if(matcher.isCharacterMatch()) {
+            String characters = String.join("", words) + " ,.!?;:";
+            inputs = new String[characters.length()];
+            for(int x = 0; x < inputs.length; x++) {
+                inputs[x] = String.valueOf(characters.charAt(x));
+            }
+        } else {
+            inputs = words;
+        }
+    }
+
+    /**
+     * Matches every input once
+     *
+     * @return the number of inputs that matched
+     */
+    @Benchmark
+    public int match() {
+        int matched = 0;
+        for(String input: inputs) {
+            if(matcher.match(input))
+                matched++;
+        }
+        return matched;
+    }
+}
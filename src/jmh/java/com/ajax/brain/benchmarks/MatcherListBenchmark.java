@@ -0,0 +1,87 @@
+package com.ajax.brain.benchmarks;
+
+import com.ajax.brain.linguist.Matcher;
+import com.ajax.brain.linguist.MatcherList;
+import com.ajax.brain.linguist.TokenType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds to, iterates and indexes {@code MatcherList}s of different sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherListBenchmark {
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    /**
+     * {@code Matcher}s with random priorities in the order they are added
+     */
+    private Matcher[] matchers;
+
+    /**
+     * A list holding every {@code Matcher}
+     */
+    private MatcherList list;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(0x5EED);
+        TokenType[] types = TokenType.values();
+
+        matchers = new Matcher[size];
+        for(int x = 0; x < size; x++) {
+            matchers[x] = Matcher.getSimpleMatcher("word" + x, random.nextInt(size), types[random.nextInt(types.length)], random.nextBoolean());
+        }
+        list = new MatcherList(matchers);
+    }
+
+    @Benchmark
+    public MatcherList add() {
+        MatcherList list = new MatcherList();
+        for(Matcher matcher: matchers) {
+            list.add(matcher);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public MatcherList addAll() {
+        MatcherList list = new MatcherList();
+        list.addAll(matchers);
+        return list;
+    }
+
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for(Matcher matcher: list) {
+            sum += matcher.getPriority();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int get() {
+        int sum = 0;
+        for(int x = 0, size = list.size(); x < size; x++) {
+            sum += list.get(x).getPriority();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void getByType(Blackhole blackhole) {
+        for(TokenType type: TokenType.values()) {
+            blackhole.consume(list.getMatchers(type));
+        }
+    }
+}
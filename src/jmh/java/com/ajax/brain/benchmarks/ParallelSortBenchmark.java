@@ -0,0 +1,44 @@
+package com.ajax.brain.benchmarks;
+
+import com.ajax.brain.utils.sorts.Sort;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts arrays large enough for the parallel sorts to split them, next to their sequential counterparts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelSortBenchmark {
+    @Param({"MergeSort", "ParallelMergeSort", "QuickSort", "ParallelQuickSort", "RadixSort", "ParallelRadixSort"})
+    public String sort;
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"RANDOM", "FEW_UNIQUE"})
+    public BenchmarkData.Distribution distribution;
+
+    private Sort<Integer> sorter;
+
+    private Integer[] values;
+
+    @Setup
+    public void setup() {
+        values = BenchmarkData.integers(size, distribution);
+        sorter = SortBenchmark.sortOf(sort, Integer::intValue);
+    }
+
+    @Benchmark
+    public Integer[] sort() {
+        Integer[] copy = Arrays.copyOf(values, values.length);
+        sorter.sort(copy);
+        return copy;
+    }
+}
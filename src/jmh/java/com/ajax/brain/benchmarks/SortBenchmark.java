@@ -0,0 +1,76 @@
+package com.ajax.brain.benchmarks;
+
+import com.ajax.brain.utils.sorts.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts arrays of different sizes and distributions with every {@code Sort}
+ * Every invocation sorts a fresh copy of the input, {@link #copy()} measures the copy alone so it can be subtracted
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+    @Param({"QuickSort", "MergeSort", "BottomUpMergeSort", "RadixSort", "TreeSort", "InsertionSort", "BubbleSort", "KeySort", "ParallelMergeSort", "ParallelQuickSort", "HeapSort", "ParallelRadixSort", "RunSort"})
+    public String sort;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "NEARLY_SORTED", "FEW_UNIQUE"})
+    public BenchmarkData.Distribution distribution;
+
+    private Sort<Integer> sorter;
+
+    private Integer[] values;
+
+    @Setup
+    public void setup() {
+        values = BenchmarkData.integers(size, distribution);
+        sorter = sortOf(sort, Integer::intValue);
+    }
+
+    /**
+     * Creates the {@code Sort} with the name
+     *
+     * @param name the simple name of the {@code Sort}'s class
+     * @param representor the {@code Representor} of the values
+     * @return the {@code Sort}
+     */
+    static <T> Sort<T> sortOf(String name, Representor<T> representor) {
+        switch (name) {
+            case "QuickSort": return QuickSort.getInstance(representor);
+            case "MergeSort": return MergeSort.getInstance(representor);
+            case "BottomUpMergeSort": return MergeSort.getBottomUpInstance(representor);
+            case "RadixSort": return RadixSort.getInstance(representor);
+            case "TreeSort": return TreeSort.getInstance(representor);
+            case "InsertionSort": return InsertionSort.getInstance(representor);
+            case "BubbleSort": return BubbleSort.getInstance(representor);
+            case "KeySort": return KeySort.getInstance(representor);
+            case "ParallelMergeSort": return ParallelMergeSort.getInstance(representor);
+            case "ParallelQuickSort": return ParallelQuickSort.getInstance(representor);
+            case "HeapSort": return HeapSort.getInstance(representor);
+            case "ParallelRadixSort": return ParallelRadixSort.getInstance(representor);
+            case "RunSort": return RunSort.getInstance(representor);
+            default: throw new IllegalArgumentException("Unknown sort " + name);
+        }
+    }
+
+    @Benchmark
+    public Integer[] sort() {
+        Integer[] copy = Arrays.copyOf(values, values.length);
+        sorter.sort(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public Integer[] copy() {
+        return Arrays.copyOf(values, values.length);
+    }
+}
@@ -0,0 +1,229 @@
+package com.ajax.brain.linguist;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A trie of byte sequences that stores an {@code int} value for every word put into it
+ * The edges are kept in a single open addressing hash table keyed by the parent node and byte
+ * so a lookup costs one probe per byte no matter how many words are stored
+ */
+final class ByteTrie {
+    /**
+     * The value returned for words that are not in the trie
+     */
+    static final int NO_VALUE = Integer.MAX_VALUE;
+
+    /**
+     * The initial size of the edge table, must be a power of 2
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Whether ASCII letters are compared without case
+     */
+    private final boolean foldCase;
+
+    /**
+     * The edge keys, the parent node shifted left a byte and the byte plus 1 so that 0 is an empty slot
+     */
+    private long[] keys;
+
+    /**
+     * The child node of every edge
+     */
+    private int[] children;
+
+    /**
+     * The value stored at every node, {@link #NO_VALUE} if no word ends at the node
+     */
+    private int[] values;
+
+    /**
+     * The number of nodes in the trie including the root
+     */
+    private int nodes;
+
+    /**
+     * The number of edges in the trie
+     */
+    private int edges;
+
+    /**
+     * Creates an empty {@code ByteTrie}
+     *
+     * @param foldCase whether ASCII letters should be compared without case
+     */
+    ByteTrie(boolean foldCase) {
+        this.foldCase = foldCase;
+        this.keys = new long[INITIAL_CAPACITY];
+        this.children = new int[INITIAL_CAPACITY];
+        this.values = new int[INITIAL_CAPACITY];
+        this.values[0] = NO_VALUE;
+        this.nodes = 1;
+    }
+
+    /**
+     * Returns whether the trie contains no words
+     *
+     * @return {@code true} if nothing has been put in the trie
+     */
+    boolean isEmpty() {
+        return edges == 0 && values[0] == NO_VALUE;
+    }
+
+    /**
+     * Puts the word in the trie
+     * If the word is already in the trie the smaller of the values is kept
+     *
+     * @param word the bytes of the word
+     * @param value the value for the word
+     */
+    void put(byte[] word, int value) {
+        int node = 0;
+
+        for(byte b: word) {
+            int child = child(node, fold(b));
+
+            if(child == -1) {
+                child = addNode();
+                addEdge(node, fold(b), child);
+            }
+            node = child;
+        }
+
+        values[node] = Math.min(values[node], value);
+    }
+
+    /**
+     * Returns the value of the word in the buffer
+     *
+     * @param buffer the buffer holding the word
+     * @param offset the start of the word
+     * @param length the length of the word
+     * @return the value of the word or {@link #NO_VALUE} if it isn't in the trie
+     */
+    int get(ByteBuffer buffer, int offset, int length) {
+        int node = 0;
+
+        for(int x = offset, end = offset + length; x < end; x++) {
+            node = child(node, fold(buffer.get(x)));
+            if(node == -1)
+                return NO_VALUE;
+        }
+
+        return values[node];
+    }
+
+    /**
+     * Lowercases ASCII letters if the trie folds case
+     *
+     * @param b the byte to fold
+     * @return the unsigned value of the folded byte
+     */
+    private int fold(byte b) {
+        int i = b & 0xFF;
+        if(foldCase && i >= 'A' && i <= 'Z')
+            return i + ('a' - 'A');
+        return i;
+    }
+
+    /**
+     * Finds the child of the node for the byte
+     *
+     * @param node the parent node
+     * @param b the unsigned byte
+     * @return the child node or -1 if there is none
+     */
+    private int child(int node, int b) {
+        long key = edgeKey(node, b);
+        int mask = keys.length - 1;
+
+        for(int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if(k == key)
+                return children[slot];
+            if(k == 0)
+                return -1;
+        }
+    }
+
+    /**
+     * Creates a new node without a value
+     *
+     * @return the new node
+     */
+    private int addNode() {
+        if(nodes == values.length) {
+            int oldLength = values.length;
+            values = Arrays.copyOf(values, oldLength * 2);
+            Arrays.fill(values, oldLength, values.length, NO_VALUE);
+        }
+        values[nodes] = NO_VALUE;
+        return nodes++;
+    }
+
+    /**
+     * Adds an edge to the edge table, growing it when it is half full
+     *
+     * @param node the parent node
+     * @param b the unsigned byte
+     * @param child the child node
+     */
+    private void addEdge(int node, int b, int child) {
+        if(++edges * 2 > keys.length)
+            rehash(keys.length * 2);
+
+        insert(edgeKey(node, b), child);
+    }
+
+    /**
+     * Inserts a key into the edge table without checking the size
+     *
+     * @param key the edge key
+     * @param child the child node
+     */
+    private void insert(long key, int child) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+
+        while(keys[slot] != 0)
+            slot = (slot + 1) & mask;
+
+        keys[slot] = key;
+        children[slot] = child;
+    }
+
+    /**
+     * Moves every edge into a table of the new capacity
+     *
+     * @param capacity the new capacity, must be a power of 2
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldChildren = children;
+
+        keys = new long[capacity];
+        children = new int[capacity];
+
+        for(int x = 0; x < oldKeys.length; x++) {
+            if(oldKeys[x] != 0)
+                insert(oldKeys[x], oldChildren[x]);
+        }
+    }
+
+    /**
+     * Combines a node and byte into an edge key, never 0
+     */
+    private static long edgeKey(int node, int b) {
+        return (((long) node << 8) | b) + 1;
+    }
+
+    /**
+     * Spreads the bits of the edge key
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,340 @@
+package com.ajax.brain.linguist;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A {@code MatcherList} compiled for matching words straight from a byte buffer
+ * Every word {@code Matcher} that only matches a fixed set of words is merged into a trie so classifying a word
+ * takes time proportional to the length of the word no matter how many words are registered
+ * {@code Matcher}s that can't be merged are still tried in priority order but only until the trie's match takes over
+ *
+ * The set is an immutable snapshot, later changes to the {@code MatcherList} are not seen by it
+ * Nothing in the set changes after it is created so one set can be shared by any number of {@code Lexer}s on any number
+ * of threads, swap the reference to a new set to change the {@code Matcher}s
+ *
+ * @see MatcherList#freeze()
+ */
+public final class CompiledMatcherSet {
+    /**
+     * The charset used to turn the literal words into bytes, the same one the {@code Lexer} uses for words
+     */
+    private final Charset charset;
+
+    /**
+     * The {@code Matcher}s in priority order, the index of a {@code Matcher} is its rank
+     */
+    private final Matcher[] matchers;
+
+    /**
+     * The character {@code Matcher}s in priority order
+     */
+    private final Matcher[] characterMatchers;
+
+    /**
+     * The word {@code Matcher}s in priority order
+     */
+    private final Matcher[] wordMatchers;
+
+    /**
+     * The case sensitive literal words, the value of a word is the rank of its {@code Matcher}
+     */
+    private final ByteTrie exactTrie;
+
+    /**
+     * The case insensitive literal words, the value of a word is the rank of its {@code Matcher}
+     */
+    private final ByteTrie foldedTrie;
+
+    /**
+     * The ranks of the {@code Matcher}s that have to be tried with {@link Matcher#match(String)}, in order
+     */
+    private final int[] fallbackRanks;
+
+    /**
+     * Compiles the {@code Matcher}s in the {@code MatcherList} for words encoded in the {@code Lexer}'s default charset
+     *
+     * @param matcherList the {@code MatcherList} to compile
+     */
+    public CompiledMatcherSet(MatcherList matcherList) {
+        this(matcherList, Lexer.DEFAULT_CHARSET);
+    }
+
+    /**
+     * Compiles the {@code Matcher}s in the {@code MatcherList} for words encoded in the charset
+     *
+     * @param matcherList the {@code MatcherList} to compile
+     * @param charset the charset the words are encoded in
+     */
+    public CompiledMatcherSet(MatcherList matcherList, Charset charset) {
+        this.charset = charset;
+        this.matchers = matcherList.getMatchers();
+        this.characterMatchers = Arrays.stream(matchers).filter(Matcher::isCharacterMatch).toArray(Matcher[]::new);
+        this.wordMatchers = Arrays.stream(matchers).filter(matcher -> !matcher.isCharacterMatch()).toArray(Matcher[]::new);
+        this.exactTrie = new ByteTrie(false);
+        this.foldedTrie = new ByteTrie(true);
+
+        ArrayList<Integer> fallback = new ArrayList<>();
+        for(int rank = 0; rank < matchers.length; rank++) {
+            if(matchers[rank].isCharacterMatch())
+                continue; //Words never contain characters that character matchers match
+            if(!addLiterals(matchers[rank], rank))
+                fallback.add(rank);
+        }
+
+        this.fallbackRanks = fallback.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Puts the literal words of the {@code Matcher} in the tries
+     * Literals are only put in the tries if comparing their bytes gives the same result as comparing the {@code String}s
+     *
+     * @param matcher the {@code Matcher} to add
+     * @param rank the rank of the {@code Matcher}
+     * @return {@code false} if the {@code Matcher} has to be tried with {@link Matcher#match(String)}
+     */
+    private boolean addLiterals(Matcher matcher, int rank) {
+        String[] literals = matcher.getLiterals();
+        if(literals == null)
+            return false;
+
+        boolean ignoreCase = matcher.isIgnoreCase();
+        byte[][] words = new byte[literals.length][];
+
+        for(int x = 0; x < literals.length; x++) {
+            String literal = literals[x];
+            if(literal == null)
+                continue;
+
+            byte[] word = literal.getBytes(charset);
+            if(literal.indexOf('\uFFFD') != -1 || !literal.equals(new String(word, charset)))
+                return false; //The bytes don't round trip so the String has to be compared
+            if(ignoreCase && !isAscii(word, 0, word.length))
+                return false; //Case folding beyond ASCII isn't byte-wise
+            words[x] = word;
+        }
+
+        ByteTrie trie = ignoreCase? foldedTrie: exactTrie;
+        for(byte[] word: words) {
+            if(word != null)
+                trie.put(word, rank);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the word {@code Matcher} with the lowest priority that matches the text
+     * Character {@code Matcher}s are skipped, they only match characters that split words
+     *
+     * @param text the word to match
+     * @return the {@code Matcher} or {@code null} if the text is a plain word
+     */
+    public Matcher match(String text) {
+        byte[] word = text.getBytes(charset);
+        return matchWord(ByteBuffer.wrap(word), 0, word.length);
+    }
+
+    /**
+     * Returns the word {@code Matcher} with the lowest priority that matches the word in the buffer
+     * The word is only decoded into a {@code String} if a {@code Matcher} that isn't in the trie needs it
+     *
+     * @param buffer the buffer holding the word
+     * @param offset the start of the word in the buffer
+     * @param length the length of the word
+     * @return the {@code Matcher} or {@code null} if the text is a plain word
+     */
+    Matcher matchWord(ByteBuffer buffer, int offset, int length) {
+        return matchWord(buffer, offset, length, null, LexerMetrics.NONE);
+    }
+
+    /**
+     * Returns the word {@code Matcher} with the lowest priority that matches the word in the buffer and counts the tries
+     *
+     * @param buffer the buffer holding the word
+     * @param offset the start of the word in the buffer
+     * @param length the length of the word
+     * @param profile counts the tries of every {@code Matcher} or {@code null}
+     * @param metrics told how many {@code Matcher}s were tried
+     * @return the {@code Matcher} or {@code null} if the text is a plain word
+     */
+    Matcher matchWord(ByteBuffer buffer, int offset, int length, MatcherProfile profile, LexerMetrics metrics) {
+        boolean ascii = isAscii(buffer, offset, length);
+        String text = null;
+        if(!ascii && !foldedTrie.isEmpty()) {
+            text = TokenSource.decode(buffer, offset, length, charset);
+            if(foldsToAscii(text))
+                return matchLinear(text, profile, metrics); //The trie only folds ASCII so a folded literal could be missed
+        }
+
+        int best = Math.min(exactTrie.get(buffer, offset, length), foldedTrie.get(buffer, offset, length));
+        int evaluations = 1;
+
+        for(int rank: fallbackRanks) {
+            if(rank > best)
+                break;
+
+            Matcher matcher = matchers[rank];
+            boolean matched;
+            if(ascii) {
+                matched = matcher.matchAscii(buffer, offset, length);
+            } else {
+                if(text == null)
+                    text = TokenSource.decode(buffer, offset, length, charset);
+                matched = matcher.match(text);
+            }
+            evaluations++;
+
+            if(matched) {
+                if(profile != null)
+                    profile.hit(rank);
+                metrics.wordMatched(evaluations);
+                return matcher;
+            }
+            if(profile != null)
+                profile.miss(rank);
+        }
+
+        metrics.wordMatched(evaluations);
+        if(best == ByteTrie.NO_VALUE)
+            return null;
+        if(profile != null)
+            profile.hit(best);
+        return matchers[best];
+    }
+
+    /**
+     * Tries every word {@code Matcher} in priority order
+     *
+     * @param text the word to match
+     * @param profile counts the tries of every {@code Matcher} or {@code null}
+     * @param metrics told how many {@code Matcher}s were tried
+     * @return the first {@code Matcher} that matches or {@code null}
+     */
+    private Matcher matchLinear(String text, MatcherProfile profile, LexerMetrics metrics) {
+        int evaluations = 0;
+
+        for(int rank = 0; rank < matchers.length; rank++) {
+            Matcher matcher = matchers[rank];
+            if(matcher.isCharacterMatch())
+                continue;
+
+            evaluations++;
+            if(matcher.match(text)) {
+                if(profile != null)
+                    profile.hit(rank);
+                metrics.wordMatched(evaluations);
+                return matcher;
+            }
+            if(profile != null)
+                profile.miss(rank);
+        }
+
+        metrics.wordMatched(evaluations);
+        return null;
+    }
+
+    /**
+     * Returns the charset the words are encoded in
+     *
+     * @return the charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Returns the compiled {@code Matcher}s in priority order
+     *
+     * @return a copy of the {@code Matcher}s
+     */
+    public Matcher[] getMatchers() {
+        return matchers.clone();
+    }
+
+    /**
+     * Returns the character {@code Matcher}s in priority order
+     *
+     * @return a copy of the character {@code Matcher}s
+     */
+    public Matcher[] getCharacterMatchers() {
+        return characterMatchers.clone();
+    }
+
+    /**
+     * Returns the word {@code Matcher}s in priority order
+     *
+     * @return a copy of the word {@code Matcher}s
+     */
+    public Matcher[] getWordMatchers() {
+        return wordMatchers.clone();
+    }
+
+    /**
+     * Returns the number of compiled {@code Matcher}s
+     *
+     * @return the number of {@code Matcher}s
+     */
+    public int size() {
+        return matchers.length;
+    }
+
+    /**
+     * Returns the compiled {@code Matcher}s in priority order without copying them
+     *
+     * @return the internal array of {@code Matcher}s, must not be modified
+     */
+    Matcher[] matchers() {
+        return matchers;
+    }
+
+    /**
+     * Returns the character {@code Matcher}s in priority order without copying them
+     *
+     * @return the internal array of character {@code Matcher}s, must not be modified
+     */
+    Matcher[] characterMatchers() {
+        return characterMatchers;
+    }
+
+    /**
+     * Checks if the text has a non-ASCII letter that is equal to an ASCII one ignoring case
+     * {@link String#equalsIgnoreCase(String)} only folds the dotted and dotless i, the long s and the Kelvin sign into ASCII
+     */
+    private static boolean foldsToAscii(String text) {
+        for(int x = 0; x < text.length(); x++) {
+            switch (text.charAt(x)) {
+                case '\u0130':
+                case '\u0131':
+                case '\u017F':
+                case '\u212A':
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if every byte in the range is ASCII
+     */
+    private static boolean isAscii(byte[] buffer, int offset, int length) {
+        for(int x = offset, end = offset + length; x < end; x++) {
+            if(buffer[x] < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if every byte in the range is ASCII
+     */
+    private static boolean isAscii(ByteBuffer buffer, int offset, int length) {
+        for(int x = offset, end = offset + length; x < end; x++) {
+            if(buffer.get(x) < 0)
+                return false;
+        }
+        return true;
+    }
+}
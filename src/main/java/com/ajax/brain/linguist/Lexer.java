@@ -1,41 +1,97 @@
 package com.ajax.brain.linguist;
 
 import java.io.*;
-import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Most languages have a structured format but lexing may still be necessary to fully understand a sentence
  */
 public class Lexer implements Iterable<Token> {
     /**
-     * Common 1-character {@code String}s to save time later
+     * Common 1-character {@code String}s to save time later, indexed by the value of the ASCII byte
      */
-    private static final HashMap<Byte, String> COMMON_TOKENS = new HashMap<>();
+    private static final String[] COMMON_TOKENS = new String[128];
+
+    /**
+     * Byte class for bytes that are part of a word
+     */
+    private static final byte WORD_BYTE = 0;
+
+    /**
+     * Byte class for bytes matched by the whitespace {@code Matcher}
+     */
+    private static final byte WHITESPACE_BYTE = 1;
+
+    /**
+     * Byte class for bytes matched by a character {@code Matcher}
+     */
+    private static final byte CHARACTER_BYTE = 2;
+
+    /**
+     * Byte class for the bytes of UTF-8 characters that take more than one byte
+     */
+    private static final byte MULTIBYTE_BYTE = 3;
 
     static {
         //Insert all of the common 1-byte token values
-        for(int x = Byte.MIN_VALUE; x < Byte.MAX_VALUE; x++) {
-            byte b = (byte) x;
-
-            COMMON_TOKENS.put(b, String.valueOf((char)x));
+        for(int x = 0; x < COMMON_TOKENS.length; x++) {
+            COMMON_TOKENS[x] = String.valueOf((char)x);
         }
     }
 
     /**
-     * The data buffer for the lexer
+     * The size of the data buffer used when none is given
+     * Large enough that reading a big file isn't dominated by read calls
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The largest part of a file that is mapped into memory at once when none is given
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * The number of bytes each task lexes when the data is lexed in parallel and no size is given
+     */
+    public static final int DEFAULT_PARALLEL_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The charset the data is encoded in when none is given
+     */
+    public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+
+    /**
+     * The initial size of the word buffer, it grows when a longer word is found
+     */
+    private static final int INITIAL_WORD_BUFFER_SIZE = 100;
+
+    /**
+     * The matchers to use, compiled for matching words straight from the word buffer
+     */
+    private final CompiledMatcherSet matchers;
+
+    /**
+     * The data to lex, read in chunks
      */
-    private final byte[] buffer;
+    private final LexerInput input;
 
     /**
-     * The matchers to use
+     * The charset the data is encoded in
      */
-    private final MatcherList matchers;
+    private final Charset charset;
 
     /**
-     * The {@code InputStream} to read from
+     * Whether the charset is UTF-8, UTF-8 characters are decoded while lexing so {@code Matcher}s see whole characters
      */
-    private final InputStream inputStream;
+    private final boolean utf8;
 
     /**
      * Matches whitespace for the lexer
@@ -43,30 +99,137 @@ public class Lexer implements Iterable<Token> {
      */
     private final Matcher whitespaceMatcher;
 
+    /**
+     * The class of every possible byte, indexed by the unsigned value of the byte
+     * Compiled once from the character {@code Matcher}s so each byte only costs an array lookup
+     */
+    private final byte[] byteClasses;
+
+    /**
+     * The character {@code Matcher} for every byte with the class {@link #CHARACTER_BYTE}
+     */
+    private final Matcher[] byteMatchers;
+
+    /**
+     * The character {@code Matcher}s in priority order
+     */
+    private final Matcher[] characterMatchers;
+
+    /**
+     * The class plus 1 of every UTF-8 character in the basic multilingual plane that has been seen, 0 if it hasn't been seen
+     * Created when the first character that isn't ASCII is found
+     */
+    private byte[] codePointClasses;
+
     /**
      * The list of tokens read by the lexer
      */
     private final ArrayList<Token> tokenList;
 
     /**
-     * The current index of the lexer in the buffer
+     * The chunk of data being lexed, its position is the next byte to lex and its limit is the end of the data in it
      */
-    private int bufferIndex;
+    private ByteBuffer chunk;
+
+    /**
+     * What the tokens of the current chunk point into or {@code null} if the chunk will be overwritten and the tokens need their own {@code String}s
+     */
+    private TokenSource source;
+
+    /**
+     * Holds the bytes of a word that carries over from one chunk to the next
+     * Words inside a single chunk are never copied
+     */
+    private byte[] wordBuffer = new byte[INITIAL_WORD_BUFFER_SIZE];
+
+    /**
+     * The start of the current word in the chunk or -1 if the word is in the word buffer
+     */
+    private int wordStart;
+
+    /**
+     * The length of the current word
+     */
+    private int wordLength;
+
+    /**
+     * Whether all of the data has been lexed
+     */
+    private boolean finished;
+
+    /**
+     * The position of the start of the current chunk's buffer in the whole data, so positions can be compared across chunks
+     */
+    private long chunkBase;
+
+    /**
+     * The position of the first byte of the current chunk
+     */
+    private int chunkStart;
+
+    /**
+     * The UTF-8 character being decoded
+     */
+    private int codePoint;
+
+    /**
+     * The number of bytes of the UTF-8 character being decoded
+     */
+    private int codePointLength;
+
+    /**
+     * The number of bytes of the UTF-8 character that haven't been read yet, 0 if no character is being decoded
+     */
+    private int codePointRemaining;
+
+    /**
+     * The position of the first byte of the UTF-8 character in the whole data
+     */
+    private long codePointStart;
+
+    /**
+     * Interns the values of word tokens or {@code null} if every token gets its own value
+     */
+    private SymbolTable symbolTable;
+
+    /**
+     * Counts how often every {@code Matcher} is tried or {@code null} if nothing is counted
+     */
+    private MatcherProfile profile;
+
+    /**
+     * Told about the work the lexer does, {@link LexerMetrics#NONE} when metrics are off
+     */
+    private LexerMetrics metrics = LexerMetrics.NONE;
+
+    /**
+     * The number of tokens created so far, used to tell when a step of the lexer has made a token
+     */
+    private int created;
 
     /**
      * Creates a lexer for the provided {@code String}
+     * The {@code Matcher}s are compiled when the lexer is created so later changes to the {@code MatcherList} are not seen
+     * Lexers created from an unchanged {@code MatcherList} share one compiled set, see {@link MatcherList#freeze()}
+     * The {@code String} is lexed as UTF-8 so every character survives
      *
      * @param text the {@code String} for the lexer
      * @param matcherList the list of {@code Matcher}s to use for creating tokens
      */
     public Lexer(String text, MatcherList matcherList) {
-        this.whitespaceMatcher = Matcher.getWhitespaceMatcher();
-        this.buffer = text.getBytes();
-        this.matchers = matcherList;
-        this.tokenList = new ArrayList<>();
+        this(text, matcherList.freeze());
+    }
 
-        this.inputStream = null;
-        this.bufferIndex = 0;
+    /**
+     * Creates a lexer for the provided {@code String} that shares a compiled set of {@code Matcher}s
+     * The {@code String} is encoded in the set's charset
+     *
+     * @param text the {@code String} for the lexer
+     * @param matchers the compiled {@code Matcher}s to use for creating tokens
+     * @see MatcherList#freeze()
+     */
+    public Lexer(String text, CompiledMatcherSet matchers) {
+        this(LexerInput.of(text.getBytes(matchers.getCharset())), Matcher.getWhitespaceMatcher(), matchers);
     }
 
     /**
@@ -76,18 +239,118 @@ public class Lexer implements Iterable<Token> {
      * @param matcherList the list of {@code Matcher}s to use for creating tokens
      */
     public Lexer(InputStream inputStream, MatcherList matcherList) {
-        this(inputStream, Matcher.getWhitespaceMatcher(), matcherList, 1000);
+        this(inputStream, Matcher.getWhitespaceMatcher(), matcherList, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a {@code Lexer} from the provided {@code InputStream}, {@code MatcherList}, and charset
+     *
+     * @param inputStream the {@code InputStream} to read data from
+     * @param matcherList the list of {@code Matcher}s to use for creating tokens
+     * @param charset the charset the data is encoded in
+     */
+    public Lexer(InputStream inputStream, MatcherList matcherList, Charset charset) {
+        this(inputStream, Matcher.getWhitespaceMatcher(), matcherList, DEFAULT_BUFFER_SIZE, charset);
+    }
+
+    /**
+     * Creates a {@code Lexer} from the provided {@code InputStream} that shares a compiled set of {@code Matcher}s
+     * The data must be encoded in the set's charset
+     *
+     * @param inputStream the {@code InputStream} to read data from
+     * @param matchers the compiled {@code Matcher}s to use for creating tokens
+     * @see MatcherList#freeze(Charset)
+     */
+    public Lexer(InputStream inputStream, CompiledMatcherSet matchers) {
+        this(inputStream, Matcher.getWhitespaceMatcher(), matchers, DEFAULT_BUFFER_SIZE);
     }
 
     /**
      * Creates a {@code Lexer} from the provided {@code File} and {@code MatcherList}
+     * The file is memory mapped and lexed in place
      *
      * @param file the file to read from
      * @param matcherList the list of {@code Matcher}s to use for creating tokens
      * @throws FileNotFoundException if the file provided does not exist
      */
     public Lexer(File file, MatcherList matcherList) throws FileNotFoundException {
-        this(new FileInputStream(file), Matcher.getWhitespaceMatcher(), matcherList, 1000);
+        this(file, matcherList, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a {@code Lexer} from the provided {@code File}, {@code MatcherList}, and window size
+     * The file is memory mapped a window at a time and lexed in place, only words that cross windows are copied onto the heap
+     * Tokens point into the windows so a window stays mapped while its tokens are in use
+     * Files of any size can be lexed, the window size only limits how much is mapped at once
+     * The file must not be changed while it is being lexed
+     *
+     * @param file the file to read from
+     * @param matcherList the list of {@code Matcher}s to use for creating tokens
+     * @param windowSize the largest number of bytes to map at once
+     * @throws FileNotFoundException if the file provided does not exist
+     * @throws IllegalArgumentException if the window size is not positive
+     */
+    public Lexer(File file, MatcherList matcherList, int windowSize) throws FileNotFoundException {
+        this(file, matcherList, windowSize, DEFAULT_CHARSET);
+    }
+
+    /**
+     * Creates a {@code Lexer} from the provided {@code File}, {@code MatcherList}, window size, and charset
+     *
+     * @param file the file to read from
+     * @param matcherList the list of {@code Matcher}s to use for creating tokens
+     * @param windowSize the largest number of bytes to map at once
+     * @param charset the charset the file is encoded in
+     * @throws FileNotFoundException if the file provided does not exist
+     * @throws IllegalArgumentException if the window size is not positive
+     * @see #Lexer(File, MatcherList, int)
+     */
+    public Lexer(File file, MatcherList matcherList, int windowSize, Charset charset) throws FileNotFoundException {
+        this(file, matcherList.freeze(charset), windowSize);
+    }
+
+    /**
+     * Creates a {@code Lexer} from the provided {@code File} that shares a compiled set of {@code Matcher}s
+     * The file must be encoded in the set's charset
+     *
+     * @param file the file to read from
+     * @param matchers the compiled {@code Matcher}s to use for creating tokens
+     * @param windowSize the largest number of bytes to map at once
+     * @throws FileNotFoundException if the file provided does not exist
+     * @throws IllegalArgumentException if the window size is not positive
+     * @see #Lexer(File, MatcherList, int)
+     */
+    public Lexer(File file, CompiledMatcherSet matchers, int windowSize) throws FileNotFoundException {
+        this(openFile(file, windowSize, matchers), Matcher.getWhitespaceMatcher(), matchers);
+    }
+
+    /**
+     * Opens the file as input, the arguments are checked first so a bad one doesn't leave the file open
+     *
+     * @param file the file to read from
+     * @param windowSize the largest number of bytes to map at once
+     * @param matchers the compiled {@code Matcher}s the {@code Lexer} will use
+     * @return the input
+     * @throws FileNotFoundException if the file provided does not exist
+     * @throws IllegalArgumentException if the window size is not positive
+     * @throws NullPointerException if the matchers are null
+     */
+    private static LexerInput openFile(File file, int windowSize, CompiledMatcherSet matchers) throws FileNotFoundException {
+        if(windowSize <= 0)
+            throw new IllegalArgumentException("The window size must be greater than 0");
+        Objects.requireNonNull(matchers, "The matchers can not be null");
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            return LexerInput.of(randomAccessFile.getChannel(), windowSize);
+        } catch (RuntimeException e) {
+            try {
+                randomAccessFile.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
     }
 
     /**
@@ -96,6 +359,7 @@ public class Lexer implements Iterable<Token> {
      * @param inputStream the {@code InputStream} to read data from
      * @param matcherList the list of {@code Matcher}s to use for creating tokens
      * @param bufferSize the size to make the data buffer
+     * @throws IllegalArgumentException if the buffer size is not positive
      */
     public Lexer(InputStream inputStream, MatcherList matcherList, int bufferSize) {
         this(inputStream, Matcher.getWhitespaceMatcher(), matcherList, bufferSize);
@@ -104,24 +368,217 @@ public class Lexer implements Iterable<Token> {
     /**
      * Creates a {@code Lexer} from the provided {@code File}, {@code MatcherList}, whitespace {@code Matcher}, and buffer size
      * The whitespace {@code Matcher} is a {@code Matcher} used for determining the end of relevant word tokens and ignoring certain characters
+     * The data is read in chunks of the buffer size, bigger chunks mean fewer reads on large inputs
      *
      * @param inputStream the {@code InputStream} to read the data from
      * @param whitespaceMatcher the {@code Matcher} to use for matching whitespace
      * @param matcherList the list of {@code Matcher}s to use for creating tokens
      * @param bufferSize the size to make the data buffer
-     * @throws IllegalArgumentException is the whitespace {@code Matcher} is not a character {@code Matcher}
+     * @throws IllegalArgumentException is the whitespace {@code Matcher} is not a character {@code Matcher} or the buffer size is not positive
      */
     public Lexer(InputStream inputStream, Matcher whitespaceMatcher, MatcherList matcherList, int bufferSize) {
+        this(inputStream, whitespaceMatcher, matcherList, bufferSize, DEFAULT_CHARSET);
+    }
+
+    /**
+     * Creates a {@code Lexer} from the provided {@code File}, {@code MatcherList}, whitespace {@code Matcher}, buffer size, and charset
+     * UTF-8 data is decoded while it is lexed so {@code Matcher}s see whole characters, other charsets are lexed a byte at a time
+     *
+     * @param inputStream the {@code InputStream} to read the data from
+     * @param whitespaceMatcher the {@code Matcher} to use for matching whitespace
+     * @param matcherList the list of {@code Matcher}s to use for creating tokens
+     * @param bufferSize the size to make the data buffer
+     * @param charset the charset the data is encoded in
+     * @throws IllegalArgumentException is the whitespace {@code Matcher} is not a character {@code Matcher} or the buffer size is not positive
+     */
+    public Lexer(InputStream inputStream, Matcher whitespaceMatcher, MatcherList matcherList, int bufferSize, Charset charset) {
+        this(inputStream, whitespaceMatcher, matcherList.freeze(charset), bufferSize);
+    }
+
+    /**
+     * Creates a {@code Lexer} from the provided {@code InputStream}, whitespace {@code Matcher}, and buffer size that shares
+     * a compiled set of {@code Matcher}s
+     * The set is immutable so many lexers on many threads can use the same one without copying it, the data must be
+     * encoded in the set's charset
+     *
+     * @param inputStream the {@code InputStream} to read the data from
+     * @param whitespaceMatcher the {@code Matcher} to use for matching whitespace
+     * @param matchers the compiled {@code Matcher}s to use for creating tokens
+     * @param bufferSize the size to make the data buffer
+     * @throws IllegalArgumentException is the whitespace {@code Matcher} is not a character {@code Matcher} or the buffer size is not positive
+     * @see MatcherList#freeze(Charset)
+     */
+    public Lexer(InputStream inputStream, Matcher whitespaceMatcher, CompiledMatcherSet matchers, int bufferSize) {
+        this(LexerInput.of(inputStream, bufferSize), whitespaceMatcher, matchers);
+    }
+
+    /**
+     * Creates a {@code Lexer} for the provided input
+     *
+     * @param input the data to lex
+     * @param whitespaceMatcher the {@code Matcher} to use for matching whitespace
+     * @param matchers the compiled {@code Matcher}s to use for creating tokens
+     * @throws IllegalArgumentException is the whitespace {@code Matcher} is not a character {@code Matcher}
+     */
+    private Lexer(LexerInput input, Matcher whitespaceMatcher, CompiledMatcherSet matchers) {
         if(!whitespaceMatcher.isCharacterMatch())
             throw new IllegalArgumentException("The whitespace matcher should match characters");
 
-        this.matchers = matcherList;
-        this.inputStream = inputStream;
-        this.buffer = new byte[bufferSize];
+        this.matchers = matchers;
+        this.input = input;
+        this.charset = matchers.getCharset();
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
         this.whitespaceMatcher = whitespaceMatcher;
         this.tokenList = new ArrayList<>();
+        this.byteClasses = new byte[256];
+        this.byteMatchers = new Matcher[256];
+        this.characterMatchers = matchers.characterMatchers();
+        compileByteTable();
+    }
+
+    /**
+     * Creates a {@code Lexer} for part of the data that shares the compiled {@code Matcher}s of another {@code Lexer}
+     *
+     * @param parent the {@code Lexer} to share the {@code Matcher}s of
+     * @param input the part of the data to lex
+     */
+    private Lexer(Lexer parent, LexerInput input) {
+        this.matchers = parent.matchers;
+        this.input = input;
+        this.charset = parent.charset;
+        this.utf8 = parent.utf8;
+        this.whitespaceMatcher = parent.whitespaceMatcher;
+        this.tokenList = new ArrayList<>();
+        this.byteClasses = parent.byteClasses;
+        this.byteMatchers = parent.byteMatchers;
+        this.characterMatchers = parent.characterMatchers;
+        this.symbolTable = parent.symbolTable;
+        this.profile = parent.profile;
+        this.metrics = parent.metrics;
+    }
+
+    /**
+     * Compiles the character {@code Matcher}s and the whitespace {@code Matcher} into the byte tables
+     * The {@code MatcherList} is sorted so the first character {@code Matcher} that matches a byte has the lowest priority
+     * Bytes are decoded with the charset like words are, bytes that aren't a character on their own are always part of words
+     * In UTF-8 every byte that isn't ASCII is part of a longer character that is classified once it has been decoded
+     */
+    private void compileByteTable() {
+        for(int x = 0; x < byteClasses.length; x++) {
+            if(utf8 && x >= 0x80) {
+                byteClasses[x] = MULTIBYTE_BYTE;
+                continue;
+            }
+
+            String value = x < COMMON_TOKENS.length? COMMON_TOKENS[x]: new String(new byte[]{(byte) x}, charset);
+            if(value.length() != 1 || value.charAt(0) == '\uFFFD')
+                continue;
+
+            byteMatchers[x] = characterMatcher(value);
+            byteClasses[x] = classOf(value, byteMatchers[x]);
+        }
+    }
+
+    /**
+     * Finds the character {@code Matcher} with the lowest priority that matches the character
+     *
+     * @param value the character
+     * @return the {@code Matcher} or {@code null} if none match
+     */
+    private Matcher characterMatcher(String value) {
+        for(Matcher matcher: characterMatchers) {
+            if(matcher.match(value))
+                return matcher;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the class of the character
+     *
+     * @param value the character
+     * @param matcher the character {@code Matcher} of the character or {@code null}
+     * @return the class of the character
+     */
+    private byte classOf(String value, Matcher matcher) {
+        if(matcher != null)
+            return CHARACTER_BYTE;
+        return whitespaceMatcher.match(value)? WHITESPACE_BYTE: WORD_BYTE;
+    }
+
+    /**
+     * Sets the {@code SymbolTable} used to intern the values of word tokens
+     * Every occurrence of an interned word shares one {@code String} instead of creating its own
+     *
+     * @param symbolTable the {@code SymbolTable} to use or {@code null} to stop interning
+     * @throws IllegalArgumentException if the {@code SymbolTable} decodes words with a different charset than the lexer
+     */
+    public void setSymbolTable(SymbolTable symbolTable) {
+        if(symbolTable != null && !symbolTable.getCharset().equals(charset))
+            throw new IllegalArgumentException("The symbol table must use the lexer's charset");
+
+        this.symbolTable = symbolTable;
+    }
+
+    /**
+     * Returns the {@code SymbolTable} used to intern the values of word tokens
+     *
+     * @return the {@code SymbolTable} or {@code null} if values aren't interned
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Sets the {@code MatcherProfile} that counts how often every {@code Matcher} is tried and matches
+     * Counting slows the lexer down, leave it off unless the counts are needed
+     *
+     * @param profile the {@code MatcherProfile} to count with or {@code null} to stop counting
+     * @throws IllegalArgumentException if the profile is for a different {@code CompiledMatcherSet} than the lexer's
+     */
+    public void setProfile(MatcherProfile profile) {
+        if(profile != null && profile.getMatcherSet() != matchers)
+            throw new IllegalArgumentException("The profile must be for the lexer's matchers");
+
+        this.profile = profile;
+    }
+
+    /**
+     * Returns the {@code MatcherProfile} the lexer counts with
+     *
+     * @return the {@code MatcherProfile} or {@code null} if nothing is counted
+     */
+    public MatcherProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Sets the {@code LexerMetrics} told about the bytes read, the tokens created and the {@code Matcher}s tried
+     * The lexers that lex the parts of the data in {@link #lexParallel(ForkJoinPool, int)} share the metrics
+     *
+     * @param metrics the {@code LexerMetrics} to tell or {@code null} to turn metrics off
+     * @see LexerStatistics
+     */
+    public void setMetrics(LexerMetrics metrics) {
+        this.metrics = metrics == null? LexerMetrics.NONE: metrics;
+    }
 
-        this.bufferIndex = 0;
+    /**
+     * Returns the {@code LexerMetrics} the lexer tells about its work
+     *
+     * @return the {@code LexerMetrics}, {@link LexerMetrics#NONE} if metrics are off
+     */
+    public LexerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the compiled {@code Matcher}s the lexer uses
+     *
+     * @return the compiled {@code Matcher}s
+     */
+    public CompiledMatcherSet getMatcherSet() {
+        return matchers;
     }
 
     /**
@@ -133,109 +590,529 @@ public class Lexer implements Iterable<Token> {
     }
 
     /**
-     * Closes the stored {@code InputStream}
+     * Closes the stored {@code InputStream} or file if there is one
      *
      * @throws IOException see {@link InputStream#close()}
-     * @throws NullPointerException if the {@code InputStream} is {@code null}
      */
     public void dispose() throws IOException {
-        inputStream.close();
+        input.close();
     }
 
     /**
      * Used for lexing the data in the array
+     * Every token is kept in the lexer's list, use {@link #stream()} to consume the tokens without keeping them
      */
     public void lex() throws IOException {
-        byte[] wordBuffer = new byte[100];
-        int wbIndex = 0;
-
-        MainLoop:
-        while(true) {
-            if(buffer.length == bufferIndex)
-                readMore();
-            if(bufferIndex == -1)
-                break;
-
-            byte b = nextByte();
-            String value = COMMON_TOKENS.get(b);
-            if(value == null)
-                throw new Error("Unexpected null value from list of every possible value");
-
-            for(Matcher matcher: matchers) { //Look for character matches
-                if(matcher.isCharacterMatch() && matcher.match(value)) {
-                    createWordToken(wordBuffer, wbIndex);
-                    wbIndex = 0;
-                    createToken(matcher, value);
-                    continue MainLoop;
+        TokenSink sink = new CollectionSink(tokenList, symbolTable);
+        while(lexMore(sink));
+    }
+
+    /**
+     * Lexes the rest of the data into the {@code TokenBuffer} instead of the lexer's list
+     *
+     * @param tokens the {@code TokenBuffer} to add the tokens to
+     * @throws IOException if reading the data fails
+     * @see #lex(TokenBuffer, int)
+     */
+    public void lex(TokenBuffer tokens) throws IOException {
+        lex(tokens, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lexes a batch of tokens into the {@code TokenBuffer} instead of the lexer's list
+     * Tokens point into the lexed data the same way {@code Token}s do, so a file can be lexed into a buffer without
+     * creating any objects per token
+     * Clear the buffer between batches to lex data of any size with bounded memory
+     *
+     * @param tokens the {@code TokenBuffer} to add the tokens to
+     * @param batchSize the number of tokens to add before returning, one more can be added when a word ends at a character token
+     * @return {@code false} if there is no data left to lex
+     * @throws IOException if reading the data fails
+     * @throws IllegalArgumentException if the batch size is not positive
+     */
+    public boolean lex(TokenBuffer tokens, int batchSize) throws IOException {
+        if(batchSize <= 0)
+            throw new IllegalArgumentException("The batch size must be greater than 0");
+
+        TokenSink sink = new BufferSink(tokens);
+        int end = created + batchSize;
+
+        while(end - created > 0) {
+            if(!lexMore(sink))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Lexes the data in parallel on the common {@code ForkJoinPool}
+     *
+     * @throws IOException if reading the data fails
+     * @see #lexParallel(ForkJoinPool, int)
+     */
+    public void lexParallel() throws IOException {
+        lexParallel(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_CHUNK_SIZE);
+    }
+
+    /**
+     * Lexes the data in parallel, the tokens are the same and in the same order as {@link #lex()} would make
+     * The data is split into chunks of about the chunk size at whitespace, where no word can continue, and every chunk
+     * is lexed by its own task before the tokens are put back together in order
+     * Only {@code String}s and files can be split, data from an {@code InputStream} is lexed with {@link #lex()}
+     *
+     * @param pool the {@code ForkJoinPool} to lex the chunks on
+     * @param chunkSize the number of bytes each task should lex
+     * @throws IOException if reading the data fails
+     * @throws IllegalArgumentException if the chunk size is not positive
+     * @throws IllegalStateException if some of the data has already been lexed
+     */
+    public void lexParallel(ForkJoinPool pool, int chunkSize) throws IOException {
+        if(chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size must be greater than 0");
+        if(chunk != null || finished)
+            throw new IllegalStateException("The lexer has already started lexing");
+
+        List<ByteBuffer> windows = input.remainingWindows();
+        if(windows == null) {
+            lex();
+            return;
+        }
+
+        ArrayList<ForkJoinTask<List<Token>>> tasks = new ArrayList<>();
+        for(List<ByteBuffer> part: splitAtWhitespace(windows, chunkSize)) {
+            Lexer lexer = new Lexer(this, LexerInput.of(part));
+
+            tasks.add(pool.submit(() -> {
+                try {
+                    lexer.lex();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-            }
+                return lexer.tokenList;
+            }));
+        }
 
-            if(whitespaceMatcher.match(value)) {
-                createWordToken(wordBuffer, wbIndex);
-                wbIndex = 0;
-                continue;
+        try {
+            for(ForkJoinTask<List<Token>> task: tasks) {
+                tokenList.addAll(task.join());
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finished = true;
+    }
+
+    /**
+     * Splits the windows into parts that can be lexed on their own
+     * Every part but the first starts at a whitespace byte so no word is split, a part can span windows when a word does
+     *
+     * @param windows the windows of data in order
+     * @param chunkSize the number of bytes a part should have
+     * @return the parts in order, each one is a list of buffers to lex in order
+     */
+    private List<List<ByteBuffer>> splitAtWhitespace(List<ByteBuffer> windows, int chunkSize) {
+        ArrayList<List<ByteBuffer>> parts = new ArrayList<>();
+        ArrayList<ByteBuffer> part = new ArrayList<>();
+        int partSize = 0;
+
+        for(ByteBuffer window: windows) {
+            int start = window.position();
+            int end = window.limit();
 
-            wordBuffer[wbIndex++] = b;
+            while(start < end) {
+                int split = start + Math.max(chunkSize - partSize, 0);
+                while(split < end && byteClasses[window.get(split) & 0xFF] != WHITESPACE_BYTE)
+                    split++;
+
+                if(split >= end) { //The rest of the window continues into the next one
+                    part.add(window.slice(start, end - start));
+                    partSize += end - start;
+                    break;
+                }
+
+                part.add(window.slice(start, split - start));
+                parts.add(part);
+                part = new ArrayList<>();
+                partSize = 0;
+                start = split;
+            }
         }
 
-        createWordToken(wordBuffer, wbIndex); //Make sure that no words are left behind
+        if(!part.isEmpty())
+            parts.add(part);
+        return parts;
+    }
+
+    /**
+     * Returns a sequential {@code Stream} that lexes the data while the tokens are consumed
+     * The tokens are not kept by the lexer so memory use is bounded by the buffer size no matter how large the input is
+     * Don't mix this with {@link #lex()}, both consume the same input
+     *
+     * @return a lazily lexed {@code Stream} of the tokens
+     * @throws UncheckedIOException from the {@code Stream} if reading the input fails
+     */
+    public Stream<Token> stream() {
+        return StreamSupport.stream(new LexerSpliterator(), false);
     }
 
     /**
-     * Creates a token based on the provided buffer using the sored matchers
+     * Lexes until at least one token has been created or the data runs out
      *
-     * @param buffer the buffer holding the word
-     * @param len the length of the word in the buffer
+     * @param tokens where to add the new tokens
+     * @return {@code false} if there is no data left to lex
+     * @throws IOException if reading from the {@code InputStream} fails
      */
-    private void createWordToken(byte[] buffer, int len) {
-        if(len != 0) {
-            String value = new String(buffer, 0, len);
+    private boolean lexMore(TokenSink tokens) throws IOException {
+        if(finished)
+            return false;
 
-            for(Matcher matcher: matchers) { //Look for character matches
-                if(matcher.match(value)) {
-                    tokenList.add(new Token(matcher.getTokenType(), value));
-                    return;
+        int before = created;
+
+        while(created == before) {
+            if(chunk == null || !chunk.hasRemaining()) {
+                carryWord();
+                long end = chunk == null? 0: chunkBase + chunk.position(); //Before a reused chunk is refilled
+                long start = metrics == LexerMetrics.NONE? 0: System.nanoTime(); //Don't read the clock when nothing is counted
+                if((chunk = input.nextChunk()) == null) {
+                    createWordToken(tokens); //Make sure that no words are left behind
+                    finished = true;
+                    return false;
                 }
+                if(metrics != LexerMetrics.NONE)
+                    metrics.refilled(chunk.remaining(), System.nanoTime() - start);
+                source = input.reusesChunks()? null: new TokenSource(chunk, charset);
+                chunkStart = chunk.position();
+                chunkBase = end - chunkStart;
+                continue; //The chunk may be empty
             }
 
-            tokenList.add(new Token(TokenType.WORD, value));
+            byte b = chunk.get();
+            int index = b & 0xFF;
+
+            switch (byteClasses[index]) {
+                case CHARACTER_BYTE:
+                    createWordToken(tokens);
+                    if(profile != null)
+                        profile.hit(byteMatchers[index]);
+                    createToken(tokens, byteMatchers[index].getTokenType(), chunk.position() - 1, 1);
+                    break;
+                case WHITESPACE_BYTE:
+                    createWordToken(tokens);
+                    break;
+                case MULTIBYTE_BYTE:
+                    addWordByte(b);
+                    decodeMultibyte(tokens, b);
+                    break;
+                default:
+                    addWordByte(b);
+            }
         }
+
+        return true;
     }
 
-    private void createToken(Matcher matcher, String value) {
-        Token t = new Token(matcher.getTokenType(), value);
+    /**
+     * Adds the byte that was just read to the current word
+     *
+     * @param b the byte
+     */
+    private void addWordByte(byte b) {
+        if(wordLength == 0) {
+            wordStart = chunk.position() - 1;
+        } else if(wordStart == -1) {
+            if(wordLength == wordBuffer.length) {
+                wordBuffer = Arrays.copyOf(wordBuffer, wordBuffer.length * 2);
+                metrics.wordBufferGrown(wordBuffer.length);
+            }
+            wordBuffer[wordLength] = b;
+        }
+        wordLength++;
+    }
+
+    /**
+     * Decodes the byte of a UTF-8 character that takes more than one byte
+     * The bytes are added to the current word as they are read, so characters that are part of words cost nothing more,
+     * and are taken back out of the word if the whole character turns out to be whitespace or matched by a character {@code Matcher}
+     * Bytes that aren't valid UTF-8 stay in the word
+     *
+     * @param tokens where to add the tokens
+     * @param b the byte that was just read
+     */
+    private void decodeMultibyte(TokenSink tokens, byte b) {
+        long position = chunkBase + chunk.position() - 1;
+
+        if((b & 0xC0) == 0x80) { //Continuation byte
+            if(codePointRemaining == 0 || position != codePointStart + codePointLength - codePointRemaining) {
+                codePointRemaining = 0; //Not part of a character
+                return;
+            }
+
+            codePoint = (codePoint << 6) | (b & 0x3F);
+            if(--codePointRemaining == 0)
+                endCodePoint(tokens);
+            return;
+        }
 
-        tokenList.add(t);
+        if((b & 0xE0) == 0xC0) {
+            codePoint = b & 0x1F;
+            codePointLength = 2;
+        } else if((b & 0xF0) == 0xE0) {
+            codePoint = b & 0x0F;
+            codePointLength = 3;
+        } else if((b & 0xF8) == 0xF0) {
+            codePoint = b & 0x07;
+            codePointLength = 4;
+        } else {
+            codePointRemaining = 0;
+            return;
+        }
+
+        codePointRemaining = codePointLength - 1;
+        codePointStart = position;
     }
 
     /**
-     * Reads the next byte in the buffer
+     * Classifies the UTF-8 character that was just decoded, its bytes are the last ones in the current word
      *
-     * @return the next byte in the buffer
+     * @param tokens where to add the tokens
      */
-    private byte nextByte() {
-        return buffer[bufferIndex++];
+    private void endCodePoint(TokenSink tokens) {
+        int min = codePointLength == 2? 0x80: codePointLength == 3? 0x800: 0x10000;
+        if(codePoint < min || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE))
+            return; //Overlong or not a character
+
+        byte codePointClass = classOf(codePoint);
+        if(codePointClass == WORD_BYTE)
+            return;
+
+        wordLength -= codePointLength;
+        createWordToken(tokens);
+
+        if(codePointClass == CHARACTER_BYTE) {
+            String value = new String(Character.toChars(codePoint));
+            Matcher matcher = characterMatcher(value);
+            TokenType type = matcher.getTokenType();
+            if(profile != null)
+                profile.hit(matcher);
+            int offset = (int) (codePointStart - chunkBase);
+
+            if(offset >= chunkStart) {
+                createToken(tokens, type, offset, codePointLength);
+            } else { //The character started in the last chunk
+                tokens.add(type, ByteBuffer.wrap(value.getBytes(charset)), 0, codePointLength);
+                created++;
+                metrics.tokenCreated(type);
+            }
+        }
     }
 
     /**
-     * Refills the buffer with new data from the {@code InputStream}
+     * Returns the class of the character, characters in the basic multilingual plane are only classified once
      *
-     * @throws IOException see {@link java.io.InputStream#read(byte[])}
+     * @param codePoint the character
+     * @return the class of the character
+     */
+    private byte classOf(int codePoint) {
+        if(codePoint > Character.MAX_VALUE) {
+            String value = new String(Character.toChars(codePoint));
+            return classOf(value, characterMatcher(value));
+        }
+
+        if(codePointClasses == null)
+            codePointClasses = new byte[Character.MAX_VALUE + 1];
+
+        byte codePointClass = codePointClasses[codePoint];
+        if(codePointClass == 0) {
+            String value = String.valueOf((char) codePoint);
+            codePointClass = (byte) (classOf(value, characterMatcher(value)) + 1);
+            codePointClasses[codePoint] = codePointClass;
+        }
+        return (byte) (codePointClass - 1);
+    }
+
+    /**
+     * Copies the current word into the word buffer before the chunk holding it is replaced
+     */
+    private void carryWord() {
+        if(wordLength != 0 && wordStart != -1) {
+            if(wordLength > wordBuffer.length) {
+                wordBuffer = new byte[Math.max(wordLength, wordBuffer.length * 2)];
+                metrics.wordBufferGrown(wordBuffer.length);
+            }
+
+            chunk.get(wordStart, wordBuffer, 0, wordLength);
+            wordStart = -1;
+        }
+    }
+
+    /**
+     * Creates a token from the current word using the sored matchers
+     * The literal word matchers are looked up in a trie so this doesn't depend on how many words are registered
+     * Words inside a chunk that isn't overwritten become tokens that point into the chunk instead of holding a {@code String}
      *
-     * @see java.io.InputStream#read(byte[])
+     * @param tokens where to add the token
      */
-    private void readMore() throws IOException {
-        if(inputStream != null) {
-            try {
-                int bytesRead = inputStream.read(buffer);
-                if(bytesRead != -1) {
-                    bufferIndex = 0;
-                }
-            } catch (EOFException | SocketTimeoutException ignored) {
+    private void createWordToken(TokenSink tokens) {
+        if(wordLength != 0) {
+            if(wordStart != -1) {
+                Matcher matcher = matchers.matchWord(chunk, wordStart, wordLength, profile, metrics);
+                TokenType type = matcher == null? TokenType.WORD: matcher.getTokenType();
+
+                createToken(tokens, type, wordStart, wordLength);
+            } else {
+                ByteBuffer word = ByteBuffer.wrap(wordBuffer);
+                Matcher matcher = matchers.matchWord(word, 0, wordLength, profile, metrics);
+                TokenType type = matcher == null? TokenType.WORD: matcher.getTokenType();
+
+                tokens.add(type, word, 0, wordLength);
+                created++;
+                metrics.tokenCreated(type);
             }
+            wordLength = 0;
+        }
+    }
+
+    /**
+     * Creates a token from part of the current chunk
+     *
+     * @param tokens where to add the token
+     * @param type the type of the token
+     * @param offset the start of the token in the chunk
+     * @param length the length of the token
+     */
+    private void createToken(TokenSink tokens, TokenType type, int offset, int length) {
+        if(source != null)
+            tokens.add(type, source, offset, length);
+        else
+            tokens.add(type, chunk, offset, length);
+        created++;
+        metrics.tokenCreated(type);
+    }
+
+    /**
+     * Where the lexer puts the tokens it creates
+     */
+    private interface TokenSink {
+        /**
+         * Adds a token whose data stays in the source
+         *
+         * @param type the type of the token
+         * @param source the data the token can point into
+         * @param offset the start of the token in the source
+         * @param length the length of the token
+         */
+        void add(TokenType type, TokenSource source, int offset, int length);
+
+        /**
+         * Adds a token whose data will be overwritten, so it has to be copied or decoded now
+         *
+         * @param type the type of the token
+         * @param buffer the buffer holding the token
+         * @param offset the start of the token in the buffer
+         * @param length the length of the token
+         */
+        void add(TokenType type, ByteBuffer buffer, int offset, int length);
+    }
+
+    /**
+     * Adds {@code Token}s to a {@code Collection}
+     */
+    private final class CollectionSink implements TokenSink {
+        /**
+         * The {@code Collection} to add to
+         */
+        private final Collection<Token> tokens;
+
+        /**
+         * Interns the token values or {@code null}
+         */
+        private final SymbolTable symbolTable;
+
+        /**
+         * Creates a new {@code CollectionSink}
+         *
+         * @param tokens the {@code Collection} to add to
+         * @param symbolTable interns the token values or {@code null}
+         */
+        private CollectionSink(Collection<Token> tokens, SymbolTable symbolTable) {
+            this.tokens = tokens;
+            this.symbolTable = symbolTable;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void add(TokenType type, TokenSource source, int offset, int length) {
+            String value = commonValue(type, source.buffer(), offset, length);
+
+            if(value != null)
+                tokens.add(new Token(type, value));
+            else
+                tokens.add(new SourceToken(type, source, offset, length));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void add(TokenType type, ByteBuffer buffer, int offset, int length) {
+            String value = commonValue(type, buffer, offset, length);
+
+            if(value == null)
+                value = TokenSource.decode(buffer, offset, length, charset);
+            tokens.add(new Token(type, value));
+        }
+
+        /**
+         * Finds a shared {@code String} for the value, shared values are cheaper than pointing into the data
+         * Only words are interned, numbers and the like are rarely repeated and would fill the table
+         *
+         * @return the shared value or {@code null} if there isn't one
+         */
+        private String commonValue(TokenType type, ByteBuffer buffer, int offset, int length) {
+            if(length == 1 && buffer.get(offset) >= 0)
+                return COMMON_TOKENS[buffer.get(offset)];
+
+            if(symbolTable != null && type == TokenType.WORD)
+                return symbolTable.value(buffer, offset, length);
+            return null;
+        }
+    }
+
+    /**
+     * Adds tokens to a {@code TokenBuffer}
+     */
+    private final class BufferSink implements TokenSink {
+        /**
+         * The {@code TokenBuffer} to add to
+         */
+        private final TokenBuffer tokens;
+
+        /**
+         * Creates a new {@code BufferSink}
+         *
+         * @param tokens the {@code TokenBuffer} to add to
+         */
+        private BufferSink(TokenBuffer tokens) {
+            this.tokens = tokens;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void add(TokenType type, TokenSource source, int offset, int length) {
+            tokens.add(type, source, offset, length);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void add(TokenType type, ByteBuffer buffer, int offset, int length) {
+            tokens.add(type, buffer, offset, length, charset);
         }
-        bufferIndex = -1;
     }
 
     public class LexerIterator implements Iterator<Token> {
@@ -279,4 +1156,69 @@ public class Lexer implements Iterable<Token> {
             index--;
         }
     }
+
+    /**
+     * {@code Spliterator} that lexes more data whenever it runs out of tokens
+     * Only the tokens from the last step of the lexer are held at a time
+     */
+    public class LexerSpliterator implements Spliterator<Token> {
+        /**
+         * The tokens that have been lexed but not consumed yet
+         */
+        private final ArrayDeque<Token> pending = new ArrayDeque<>();
+
+        /**
+         * Adds the lexed tokens to the pending tokens
+         */
+        private final TokenSink sink = new CollectionSink(pending, symbolTable);
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super Token> action) {
+            Objects.requireNonNull(action);
+
+            try {
+                while(pending.isEmpty() && lexMore(sink));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Token t = pending.poll();
+            if(t == null)
+                return false;
+
+            action.accept(t);
+            return true;
+        }
+
+        /**
+         * The lexer can't be split
+         *
+         * @return {@code null}
+         */
+        @Override
+        public Spliterator<Token> trySplit() {
+            return null;
+        }
+
+        /**
+         * The number of tokens isn't known until the data is lexed
+         *
+         * @return {@code Long.MAX_VALUE}
+         */
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
 }
@@ -0,0 +1,330 @@
+package com.ajax.brain.linguist;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The data for a {@code Lexer} delivered in chunks
+ * A chunk's position is the first unread byte and its limit is the end of the data actually read into it
+ */
+abstract class LexerInput implements Closeable {
+    /**
+     * Returns the next chunk of data
+     * The previous chunk may be overwritten so it must be fully consumed before this is called
+     *
+     * @return the next chunk or {@code null} if there is no data left
+     * @throws IOException if reading the data fails
+     */
+    abstract ByteBuffer nextChunk() throws IOException;
+
+    /**
+     * Returns whether a chunk is overwritten by the next call to {@link #nextChunk()}
+     * Tokens can only point into chunks that are never overwritten
+     *
+     * @return {@code true} if the chunks are reused
+     */
+    boolean reusesChunks() {
+        return false;
+    }
+
+    /**
+     * Returns all of the data that has not been delivered yet as windows that can be read in any order
+     * Inputs that can only be read in order return {@code null}
+     *
+     * @return the remaining windows in order or {@code null}
+     * @throws IOException if reading the data fails
+     */
+    List<ByteBuffer> remainingWindows() throws IOException {
+        return null;
+    }
+
+    /**
+     * Releases any resources held by the input
+     *
+     * @throws IOException if releasing the resources fails
+     */
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Creates an input that delivers the whole array as a single chunk
+     *
+     * @param data the data to lex
+     * @return the new {@code LexerInput}
+     */
+    static LexerInput of(byte[] data) {
+        return new ArrayInput(data);
+    }
+
+    /**
+     * Creates an input that delivers the buffers as chunks in order
+     *
+     * @param chunks the buffers to lex
+     * @return the new {@code LexerInput}
+     */
+    static LexerInput of(List<ByteBuffer> chunks) {
+        return new BufferInput(chunks);
+    }
+
+    /**
+     * Creates an input that reads the {@code InputStream} into a reused chunk of the provided size
+     *
+     * @param inputStream the {@code InputStream} to read from
+     * @param chunkSize the size of the chunk
+     * @return the new {@code LexerInput}
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    static LexerInput of(InputStream inputStream, int chunkSize) {
+        if(chunkSize <= 0)
+            throw new IllegalArgumentException("The buffer size must be greater than 0");
+        return new ChunkedInput(inputStream, chunkSize);
+    }
+
+    /**
+     * Creates an input that maps the file into memory one window at a time
+     * The lexer reads the mapped windows directly so nothing is copied onto the heap
+     *
+     * @param channel the {@code FileChannel} of the file
+     * @param windowSize the largest number of bytes to map at once
+     * @return the new {@code LexerInput}
+     * @throws IllegalArgumentException if the window size is not positive
+     */
+    static LexerInput of(FileChannel channel, int windowSize) {
+        if(windowSize <= 0)
+            throw new IllegalArgumentException("The window size must be greater than 0");
+        return new MappedInput(channel, windowSize);
+    }
+
+    /**
+     * Input that is already in memory
+     */
+    private static class ArrayInput extends LexerInput {
+        /**
+         * The data or {@code null} once it has been delivered
+         */
+        private byte[] data;
+
+        /**
+         * Creates a new {@code ArrayInput}
+         *
+         * @param data the data to deliver
+         */
+        ArrayInput(byte[] data) {
+            this.data = data;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        ByteBuffer nextChunk() {
+            if(data == null)
+                return null;
+
+            ByteBuffer chunk = ByteBuffer.wrap(data);
+            data = null;
+            return chunk;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        List<ByteBuffer> remainingWindows() {
+            ByteBuffer chunk = nextChunk();
+            return chunk == null? List.of(): List.of(chunk);
+        }
+    }
+
+    /**
+     * Input from buffers that are already in memory
+     */
+    private static class BufferInput extends LexerInput {
+        /**
+         * The buffers to deliver
+         */
+        private final Iterator<ByteBuffer> chunks;
+
+        /**
+         * Creates a new {@code BufferInput}
+         *
+         * @param chunks the buffers to deliver
+         */
+        BufferInput(List<ByteBuffer> chunks) {
+            this.chunks = chunks.iterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        ByteBuffer nextChunk() {
+            return chunks.hasNext()? chunks.next(): null;
+        }
+    }
+
+    /**
+     * Input read from an {@code InputStream} into a single reused chunk
+     */
+    private static class ChunkedInput extends LexerInput {
+        /**
+         * The number of reads in a row that can return no data before the stream is treated as broken
+         * A blocking stream never returns 0 for a non-empty read, so this only stops a non-blocking one from spinning forever
+         */
+        static final int MAX_EMPTY_READS = 64;
+
+        /**
+         * The {@code InputStream} to read from
+         */
+        private final InputStream inputStream;
+
+        /**
+         * The chunk the data is read into
+         */
+        private final ByteBuffer chunk;
+
+        /**
+         * Creates a new {@code ChunkedInput}
+         *
+         * @param inputStream the {@code InputStream} to read from
+         * @param chunkSize the size of the chunk
+         */
+        ChunkedInput(InputStream inputStream, int chunkSize) {
+            this.inputStream = inputStream;
+            this.chunk = ByteBuffer.allocate(chunkSize);
+        }
+
+        /**
+         * Reads as many bytes as the {@code InputStream} gives in one read
+         * A short read is fine, the limit of the chunk is set to the number of bytes actually read
+         * A read timeout is not the end of the data, it is thrown so the tokens aren't silently cut short
+         *
+         * @return the chunk or {@code null} if the stream has ended
+         * @throws IOException see {@link InputStream#read(byte[], int, int)}, or if the stream returns no data
+         * {@value #MAX_EMPTY_READS} times in a row
+         */
+        @Override
+        ByteBuffer nextChunk() throws IOException {
+            int bytesRead;
+            int emptyReads = 0;
+
+            try {
+                while((bytesRead = inputStream.read(chunk.array(), 0, chunk.capacity())) == 0) {
+                    if(++emptyReads == MAX_EMPTY_READS)
+                        throw new IOException("The input stream returned no data " + MAX_EMPTY_READS + " times in a row");
+                    Thread.onSpinWait();
+                }
+            } catch (EOFException e) {
+                return null;
+            }
+
+            if(bytesRead == -1)
+                return null;
+
+            chunk.position(0).limit(bytesRead);
+            return chunk;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean reusesChunks() {
+            return true;
+        }
+
+        /**
+         * Closes the {@code InputStream}
+         *
+         * @throws IOException see {@link InputStream#close()}
+         */
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Input mapped from a file in windows so files larger than a single {@code ByteBuffer} can be lexed
+     */
+    private static class MappedInput extends LexerInput {
+        /**
+         * The channel of the file
+         */
+        private final FileChannel channel;
+
+        /**
+         * The largest number of bytes to map at once
+         */
+        private final int windowSize;
+
+        /**
+         * The position in the file of the next window
+         */
+        private long position;
+
+        /**
+         * Creates a new {@code MappedInput}
+         *
+         * @param channel the channel of the file
+         * @param windowSize the largest number of bytes to map at once
+         */
+        MappedInput(FileChannel channel, int windowSize) {
+            this.channel = channel;
+            this.windowSize = windowSize;
+        }
+
+        /**
+         * Maps the next window of the file
+         * The previous window is unmapped once it is garbage collected
+         *
+         * @return the mapped window or {@code null} if the end of the file has been reached
+         * @throws IOException see {@link FileChannel#map(FileChannel.MapMode, long, long)}
+         */
+        @Override
+        ByteBuffer nextChunk() throws IOException {
+            long size = channel.size();
+            if(position >= size)
+                return null;
+
+            long length = Math.min(windowSize, size - position);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            return window;
+        }
+
+        /**
+         * Maps every remaining window of the file
+         *
+         * @return the mapped windows
+         * @throws IOException see {@link FileChannel#map(FileChannel.MapMode, long, long)}
+         */
+        @Override
+        List<ByteBuffer> remainingWindows() throws IOException {
+            ArrayList<ByteBuffer> windows = new ArrayList<>();
+
+            for(ByteBuffer window = nextChunk(); window != null; window = nextChunk()) {
+                windows.add(window);
+            }
+            return windows;
+        }
+
+        /**
+         * Closes the {@code FileChannel}
+         *
+         * @throws IOException see {@link FileChannel#close()}
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
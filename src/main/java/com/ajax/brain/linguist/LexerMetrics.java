@@ -0,0 +1,47 @@
+package com.ajax.brain.linguist;
+
+/**
+ * Listens to the work a {@code Lexer} does while it lexes
+ * Every method does nothing by default so a listener only overrides what it wants to count
+ * The methods are called on the lexing thread in the middle of the hot loop, they have to be cheap and, when a
+ * {@code Lexer} lexes in parallel, safe to call from many threads at once
+ *
+ * @see Lexer#setMetrics(LexerMetrics)
+ * @see LexerStatistics
+ */
+public interface LexerMetrics {
+    /**
+     * Metrics that ignore everything, this is what a {@code Lexer} uses when metrics are off
+     */
+    LexerMetrics NONE = new LexerMetrics() {};
+
+    /**
+     * Called after the {@code Lexer} read the next chunk of data
+     *
+     * @param bytes the number of bytes in the chunk
+     * @param nanos how long reading the chunk took in nanoseconds
+     */
+    default void refilled(int bytes, long nanos) {}
+
+    /**
+     * Called for every token the {@code Lexer} creates
+     *
+     * @param type the type of the token
+     */
+    default void tokenCreated(TokenType type) {}
+
+    /**
+     * Called when a word didn't fit in the {@code Lexer}'s word buffer and the buffer was replaced by a larger one
+     *
+     * @param capacity the size of the new word buffer
+     */
+    default void wordBufferGrown(int capacity) {}
+
+    /**
+     * Called after a word was classified
+     *
+     * @param evaluations the number of {@code Matcher}s tried, looking the word up in the trie of literal words counts as one
+     * @see CompiledMatcherSet
+     */
+    default void wordMatched(int evaluations) {}
+}
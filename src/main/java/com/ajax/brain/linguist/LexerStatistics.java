@@ -0,0 +1,419 @@
+package com.ajax.brain.linguist;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code LexerMetrics} that count everything the {@code Lexer}s they are set on do
+ * The counts can be read at any time with {@link #snapshot()} or through JMX after {@link #register(String)}
+ * The counters are safe to update from many lexers at once, counting costs one uncontended add per event
+ */
+public final class LexerStatistics implements LexerMetrics, LexerStatisticsMXBean {
+    /**
+     * The types of tokens in order of their ordinals
+     */
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    /**
+     * The number of bytes read
+     */
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * The number of tokens created, indexed by the ordinal of their type
+     */
+    private final LongAdder[] tokens = new LongAdder[TOKEN_TYPES.length];
+
+    /**
+     * The number of chunks read
+     */
+    private final LongAdder refills = new LongAdder();
+
+    /**
+     * The time spent reading chunks in nanoseconds
+     */
+    private final LongAdder refillNanos = new LongAdder();
+
+    /**
+     * The number of times a word buffer grew
+     */
+    private final LongAdder wordBufferGrowths = new LongAdder();
+
+    /**
+     * The number of words classified
+     */
+    private final LongAdder matchedWords = new LongAdder();
+
+    /**
+     * The number of {@code Matcher}s tried to classify the words
+     */
+    private final LongAdder matcherEvaluations = new LongAdder();
+
+    /**
+     * When the counts were started, from {@link System#nanoTime()}
+     */
+    private volatile long startNanos;
+
+    /**
+     * Creates statistics with every count at 0
+     */
+    public LexerStatistics() {
+        for(int x = 0; x < tokens.length; x++) {
+            tokens[x] = new LongAdder();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void refilled(int bytes, long nanos) {
+        this.bytes.add(bytes);
+        this.refills.increment();
+        this.refillNanos.add(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tokenCreated(TokenType type) {
+        tokens[type.ordinal()].increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void wordBufferGrown(int capacity) {
+        wordBufferGrowths.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void wordMatched(int evaluations) {
+        matchedWords.increment();
+        matcherEvaluations.add(evaluations);
+    }
+
+    /**
+     * Reads every count
+     * The counts are read one after another so lexers that are still running can change some of them in between
+     *
+     * @return the counts
+     */
+    public Snapshot snapshot() {
+        long[] tokenCounts = new long[tokens.length];
+        for(int x = 0; x < tokens.length; x++) {
+            tokenCounts[x] = tokens[x].sum();
+        }
+
+        return new Snapshot(System.nanoTime() - startNanos, bytes.sum(), tokenCounts, refills.sum(), refillNanos.sum(),
+                wordBufferGrowths.sum(), matchedWords.sum(), matcherEvaluations.sum());
+    }
+
+    /**
+     * Registers the statistics with the platform {@code MBeanServer}
+     *
+     * @param name the name to register under, it is quoted so it can contain any characters
+     * @return the {@code ObjectName} the statistics were registered as
+     * @throws JMException if the statistics can't be registered, eg. when the name is already taken
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(getClass().getPackageName() + ":type=" + getClass().getSimpleName() + ",name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        bytes.reset();
+        for(LongAdder count: tokens) {
+            count.reset();
+        }
+        refills.reset();
+        refillNanos.reset();
+        wordBufferGrowths.reset();
+        matchedWords.reset();
+        matcherEvaluations.reset();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTokens() {
+        return snapshot().getTokens();
+    }
+
+    /**
+     * Returns the number of tokens created of the type
+     *
+     * @param type the type of the tokens
+     * @return the number of tokens
+     */
+    public long getTokens(TokenType type) {
+        return tokens[type.ordinal()].sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getTokenCounts() {
+        LinkedHashMap<String, Long> counts = new LinkedHashMap<>();
+        snapshot().getTokenCounts().forEach((type, count) -> counts.put(type.name(), count));
+        return counts;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRefillNanos() {
+        return refillNanos.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getWordBufferGrowths() {
+        return wordBufferGrowths.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMatchedWords() {
+        return matchedWords.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMatcherEvaluations() {
+        return matcherEvaluations.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMatcherEvaluationsPerWord() {
+        return snapshot().getMatcherEvaluationsPerWord();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getBytesPerSecond() {
+        return snapshot().getBytesPerSecond();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTokensPerSecond() {
+        return snapshot().getTokensPerSecond();
+    }
+
+    /**
+     * The counts of a {@code LexerStatistics} at one point in time
+     */
+    public static final class Snapshot {
+        /**
+         * The time between starting the counts and taking the snapshot in nanoseconds
+         */
+        private final long elapsedNanos;
+
+        /**
+         * The number of bytes read
+         */
+        private final long bytes;
+
+        /**
+         * The number of tokens created, indexed by the ordinal of their type
+         */
+        private final long[] tokens;
+
+        /**
+         * The number of chunks read
+         */
+        private final long refills;
+
+        /**
+         * The time spent reading chunks in nanoseconds
+         */
+        private final long refillNanos;
+
+        /**
+         * The number of times a word buffer grew
+         */
+        private final long wordBufferGrowths;
+
+        /**
+         * The number of words classified
+         */
+        private final long matchedWords;
+
+        /**
+         * The number of {@code Matcher}s tried to classify the words
+         */
+        private final long matcherEvaluations;
+
+        private Snapshot(long elapsedNanos, long bytes, long[] tokens, long refills, long refillNanos, long wordBufferGrowths,
+                         long matchedWords, long matcherEvaluations) {
+            this.elapsedNanos = elapsedNanos;
+            this.bytes = bytes;
+            this.tokens = tokens;
+            this.refills = refills;
+            this.refillNanos = refillNanos;
+            this.wordBufferGrowths = wordBufferGrowths;
+            this.matchedWords = matchedWords;
+            this.matcherEvaluations = matcherEvaluations;
+        }
+
+        /**
+         * @return the time between starting the counts and taking the snapshot in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return the number of bytes read
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the number of tokens created
+         */
+        public long getTokens() {
+            long total = 0;
+            for(long count: tokens) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Returns the number of tokens created of the type
+         *
+         * @param type the type of the tokens
+         * @return the number of tokens
+         */
+        public long getTokens(TokenType type) {
+            return tokens[type.ordinal()];
+        }
+
+        /**
+         * @return the number of tokens created of every {@code TokenType}
+         */
+        public Map<TokenType, Long> getTokenCounts() {
+            EnumMap<TokenType, Long> counts = new EnumMap<>(TokenType.class);
+            for(TokenType type: TOKEN_TYPES) {
+                counts.put(type, tokens[type.ordinal()]);
+            }
+            return Collections.unmodifiableMap(counts);
+        }
+
+        /**
+         * @return the number of chunks read
+         */
+        public long getRefills() {
+            return refills;
+        }
+
+        /**
+         * @return the time spent reading chunks in nanoseconds
+         */
+        public long getRefillNanos() {
+            return refillNanos;
+        }
+
+        /**
+         * @return the number of times a word buffer grew
+         */
+        public long getWordBufferGrowths() {
+            return wordBufferGrowths;
+        }
+
+        /**
+         * @return the number of words classified
+         */
+        public long getMatchedWords() {
+            return matchedWords;
+        }
+
+        /**
+         * @return the number of {@code Matcher}s tried to classify the words
+         */
+        public long getMatcherEvaluations() {
+            return matcherEvaluations;
+        }
+
+        /**
+         * @return the average number of {@code Matcher}s tried per word or 0 if no words were classified
+         */
+        public double getMatcherEvaluationsPerWord() {
+            return matchedWords == 0? 0: (double) matcherEvaluations / matchedWords;
+        }
+
+        /**
+         * @return the bytes read per second
+         */
+        public double getBytesPerSecond() {
+            return perSecond(bytes);
+        }
+
+        /**
+         * @return the tokens created per second
+         */
+        public double getTokensPerSecond() {
+            return perSecond(getTokens());
+        }
+
+        /**
+         * Divides the count by the elapsed time
+         */
+        private double perSecond(long count) {
+            return elapsedNanos <= 0? 0: count * 1e9 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ajax.brain.linguist;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@code LexerStatistics}
+ *
+ * @see LexerStatistics#register(String)
+ */
+public interface LexerStatisticsMXBean {
+    /**
+     * @return the number of bytes read
+     */
+    long getBytes();
+
+    /**
+     * @return the number of tokens created
+     */
+    long getTokens();
+
+    /**
+     * @return the number of tokens created of every {@code TokenType} by the name of the type
+     */
+    Map<String, Long> getTokenCounts();
+
+    /**
+     * @return the number of chunks read
+     */
+    long getRefills();
+
+    /**
+     * @return the time spent reading chunks in nanoseconds
+     */
+    long getRefillNanos();
+
+    /**
+     * @return the number of times a word buffer grew
+     */
+    long getWordBufferGrowths();
+
+    /**
+     * @return the number of words classified
+     */
+    long getMatchedWords();
+
+    /**
+     * @return the number of {@code Matcher}s tried to classify the words
+     */
+    long getMatcherEvaluations();
+
+    /**
+     * @return the average number of {@code Matcher}s tried per word
+     */
+    double getMatcherEvaluationsPerWord();
+
+    /**
+     * @return the bytes read per second since the counts were started
+     */
+    double getBytesPerSecond();
+
+    /**
+     * @return the tokens created per second since the counts were started
+     */
+    double getTokensPerSecond();
+
+    /**
+     * Sets every count back to 0 and restarts the clock
+     */
+    void reset();
+}
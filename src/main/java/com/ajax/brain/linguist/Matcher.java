@@ -1,5 +1,6 @@
 package com.ajax.brain.linguist;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.regex.Pattern;
 
@@ -72,6 +73,111 @@ public abstract class Matcher {
      */
     public abstract boolean match(String text);
 
+    /**
+     * Returns the exact words this {@code Matcher} matches or {@code null} if it matches more than a fixed set of words
+     * Used by {@link CompiledMatcherSet} to merge word {@code Matcher}s into a single trie
+     *
+     * @return the words this {@code Matcher} matches or {@code null}
+     */
+    String[] getLiterals() {
+        return null;
+    }
+
+    /**
+     * Returns whether the words from {@link #getLiterals()} are matched regardless of case
+     *
+     * @return if the literal words ignore case
+     */
+    boolean isIgnoreCase() {
+        return false;
+    }
+
+    /**
+     * Determines if the word of ASCII bytes in the buffer is a match without the lexer having to create a {@code String}
+     * Returns the same as {@link #match(String)}, {@code Matcher}s that can check the bytes directly override this
+     *
+     * @param buffer the buffer holding the word
+     * @param offset the start of the word in the buffer
+     * @param length the length of the word, every byte of it is ASCII
+     * @return if the word matched
+     */
+    boolean matchAscii(ByteBuffer buffer, int offset, int length) {
+        char[] chars = new char[length];
+        for(int x = 0; x < length; x++) {
+            chars[x] = (char) buffer.get(offset + x);
+        }
+        return match(new String(chars));
+    }
+
+    /**
+     * Returns whether some text could be matched by both {@code Matcher}s
+     * Only {@code Matcher}s with literal words can be proven not to overlap, any other pair of word or character
+     * {@code Matcher}s might
+     *
+     * @param a a {@code Matcher}
+     * @param b another {@code Matcher}
+     * @return {@code false} if no text can match both
+     */
+    static boolean mayOverlap(Matcher a, Matcher b) {
+        if(a.isCharacterMatch() != b.isCharacterMatch())
+            return false; //Words never contain the characters that character matchers match
+
+        String[] aLiterals = a.getLiterals();
+        String[] bLiterals = b.getLiterals();
+        if(aLiterals == null && bLiterals == null)
+            return true;
+        if(aLiterals == null)
+            return matchesLiteral(a, b);
+        if(bLiterals == null)
+            return matchesLiteral(b, a);
+
+        boolean ignoreCase = a.isIgnoreCase() || b.isIgnoreCase();
+        for(String aLiteral: aLiterals) {
+            for(String bLiteral: bLiterals) {
+                if(aLiteral == null || bLiteral == null)
+                    continue;
+
+                if(ignoreCase) {
+                    //Non-ASCII letters can fold in ways that aren't transitive
+                    if(aLiteral.equalsIgnoreCase(bLiteral) || !isAscii(aLiteral) || !isAscii(bLiteral))
+                        return true;
+                } else if(aLiteral.equals(bLiteral)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the {@code Matcher} might match one of the literal words of the other {@code Matcher}
+     *
+     * @param matcher the {@code Matcher} without literal words
+     * @param literalMatcher the {@code Matcher} with literal words
+     * @return {@code false} if none of the literal words can be matched
+     */
+    private static boolean matchesLiteral(Matcher matcher, Matcher literalMatcher) {
+        if(literalMatcher.isIgnoreCase())
+            return true; //Every case of every literal would have to be tried
+
+        for(String literal: literalMatcher.getLiterals()) {
+            if(literal != null && matcher.match(literal))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if every character is ASCII
+     */
+    private static boolean isAscii(String text) {
+        for(int x = 0; x < text.length(); x++) {
+            if(text.charAt(x) >= 0x80)
+                return false;
+        }
+        return true;
+    }
+
     /**
      * Returns a simple matcher to avoid unnecessary lambda expressions everywhere for 1 word cases
      *
@@ -291,6 +397,14 @@ public abstract class Matcher {
             }
             return false;
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        String[] getLiterals() {
+            return new String[]{String.valueOf(match)};
+        }
     }
 
     /**
@@ -337,6 +451,18 @@ public abstract class Matcher {
             }
             return false;
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        String[] getLiterals() {
+            String[] literals = new String[match.length];
+            for(int x = 0; x < match.length; x++) {
+                literals[x] = String.valueOf(match[x]);
+            }
+            return literals;
+        }
     }
 
     /**
@@ -366,6 +492,14 @@ public abstract class Matcher {
         public boolean match(String text) {
             return match.equals(text);
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        String[] getLiterals() {
+            return new String[]{match};
+        }
     }
 
     /**
@@ -395,6 +529,22 @@ public abstract class Matcher {
         public boolean match(String text) {
             return match.equalsIgnoreCase(text);
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        String[] getLiterals() {
+            return new String[]{match};
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isIgnoreCase() {
+            return true;
+        }
     }
 
     /**
@@ -449,6 +599,22 @@ public abstract class Matcher {
             }
             return false;
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        String[] getLiterals() {
+            return match;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isIgnoreCase() {
+            return ignoreCase;
+        }
     }
 
     /**
@@ -526,5 +692,27 @@ public abstract class Matcher {
 
             return true;
         }
+
+        /**
+         * Returns whether or not the ASCII word is only digits without creating a {@code String}
+         *
+         * @param buffer the buffer holding the word
+         * @param offset the start of the word in the buffer
+         * @param length the length of the word
+         * @return {@code false} if the length is 0 or the word is not entirely digits
+         */
+        @Override
+        boolean matchAscii(ByteBuffer buffer, int offset, int length) {
+            if(length == 0)
+                return false;
+
+            for(int x = offset, end = offset + length; x < end; x++) {
+                byte b = buffer.get(x);
+                if(b < '0' || b > '9')
+                    return false;
+            }
+
+            return true;
+        }
     }
 }
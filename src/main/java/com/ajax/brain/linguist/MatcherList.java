@@ -1,8 +1,10 @@
 package com.ajax.brain.linguist;
 
 import com.ajax.brain.utils.UnsortedArrayException;
+import com.ajax.brain.utils.sorts.MergeSort;
 import com.ajax.brain.utils.sorts.QuickSort;
 
+import java.nio.charset.Charset;
 import java.util.*;
 
 /**
@@ -15,6 +17,9 @@ public class MatcherList implements List<Matcher> {
     //Make sure all null values are at the end of the list
     private static final QuickSort<Matcher> QUICK_SORT = QuickSort.getInstance(matcher -> matcher == null? Integer.MAX_VALUE: matcher.getPriority());
 
+    //Batches are sorted with a stable sort so equal priorities keep the order add would give them
+    private static final MergeSort<Matcher> MERGE_SORT = MergeSort.getInstance(Matcher::getPriority);
+
     //As per IntelliJ's suggestion I will use an empty array when calling toArray(T[])
     private static final Matcher[] EMPTY_MATCHER_ARRAY = new Matcher[0];
 
@@ -41,6 +46,22 @@ public class MatcherList implements List<Matcher> {
      */
     private int listMods = 0;
 
+    /**
+     * The last snapshot made by {@link #freeze(Charset)} or {@code null}
+     */
+    private CompiledMatcherSet frozen;
+
+    /**
+     * The number of modifications to the list when {@link #frozen} was made
+     */
+    private int frozenMods;
+
+    /**
+     * The {@code TokenType} and priority indexes, {@code null} until they are needed
+     * They are published in one volatile write so threads that only read the list never see half of an index
+     */
+    private volatile Index index;
+
     /**
      * Constructs an empty {@code MatcherList}
      */
@@ -115,6 +136,161 @@ public class MatcherList implements List<Matcher> {
         }
     }
 
+    /**
+     * Creates an immutable, compiled snapshot of the list for the {@code Lexer}'s default charset
+     *
+     * @return the snapshot
+     * @see #freeze(Charset)
+     */
+    public CompiledMatcherSet freeze() {
+        return freeze(Lexer.DEFAULT_CHARSET);
+    }
+
+    /**
+     * Creates an immutable, compiled snapshot of the list
+     * The snapshot is already split into character and word {@code Matcher}s and sorted so it can be handed to any number of
+     * {@code Lexer}s on any number of threads without copying the list
+     * The same snapshot is returned until the list is changed
+     *
+     * @param charset the charset the lexed words are encoded in
+     * @return the snapshot
+     */
+    public CompiledMatcherSet freeze(Charset charset) {
+        CompiledMatcherSet set = frozen;
+
+        if(set == null || frozenMods != listMods || !set.getCharset().equals(charset)) {
+            set = new CompiledMatcherSet(this, charset);
+            frozen = set;
+            frozenMods = listMods;
+        }
+        return set;
+    }
+
+    /**
+     * Moves the {@code Matcher}s that matched most often in the profile ahead of the others with the same priority
+     * A {@code Matcher} only moves past {@code Matcher}s that can't match the same text as it, so the tokens the list
+     * creates don't change, only how many {@code Matcher}s are tried before the right one is found
+     * Lexers created after this use the new order
+     *
+     * @param profile the profile of a snapshot of this list
+     * @return {@code true} if the order changed
+     * @see #freeze()
+     */
+    public boolean reorder(MatcherProfile profile) {
+        boolean changed = false;
+
+        for(int start = 0, end; start < availableMatchers; start = end) {
+            int priority = matchers[start].getPriority();
+            end = start + 1;
+            while(end < availableMatchers && matchers[end].getPriority() == priority)
+                end++;
+
+            //Insertion sort that only swaps neighbours so every pair that may overlap keeps its order
+            for(int x = start + 1; x < end; x++) {
+                Matcher matcher = matchers[x];
+                long hits = profile.getHits(matcher);
+                int y = x;
+
+                while(y > start && hits > profile.getHits(matchers[y - 1]) && !Matcher.mayOverlap(matcher, matchers[y - 1])) {
+                    matchers[y] = matchers[y - 1];
+                    y--;
+                }
+
+                if(y != x) {
+                    matchers[y] = matcher;
+                    changed = true;
+                }
+            }
+        }
+
+        if(changed)
+            listMods++;
+        return changed;
+    }
+
+    /**
+     * Returns the {@code Matcher}s that create tokens of the type in priority order
+     *
+     * @param type the type of token
+     * @return an unmodifiable list of the {@code Matcher}s, it is not updated when the list changes
+     */
+    public List<Matcher> getMatchers(TokenType type) {
+        return index().types.get(type);
+    }
+
+    /**
+     * Returns the {@code Matcher} with the lowest priority that creates tokens of the type
+     *
+     * @param type the type of token
+     * @return the first {@code Matcher} or {@code null} if none create the type
+     */
+    public Matcher getFirstMatcher(TokenType type) {
+        List<Matcher> matchersOfType = getMatchers(type);
+        return matchersOfType.isEmpty()? null: matchersOfType.get(0);
+    }
+
+    /**
+     * Returns every different priority in the list in order
+     *
+     * @return the priorities
+     */
+    public int[] getPriorities() {
+        return index().priorities.clone();
+    }
+
+    /**
+     * Returns the {@code Matcher}s with the priority, which are next to each other because the list is sorted
+     *
+     * @param priority the priority
+     * @return an unmodifiable list of the {@code Matcher}s, it is not updated when the list changes
+     */
+    public List<Matcher> getMatchersWithPriority(int priority) {
+        Index current = index();
+        int band = Arrays.binarySearch(current.priorities, priority);
+        if(band < 0)
+            return Collections.emptyList();
+
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(matchers, current.starts[band], current.starts[band + 1])));
+    }
+
+    /**
+     * Returns the {@code TokenType} and priority indexes, rebuilding them if the list has changed since they were built
+     *
+     * @return the indexes
+     */
+    private Index index() {
+        Index current = index;
+        int mods = listMods;
+        if(current != null && current.mods == mods)
+            return current;
+
+        EnumMap<TokenType, ArrayList<Matcher>> types = new EnumMap<>(TokenType.class);
+        for(TokenType type: TokenType.values()) {
+            types.put(type, new ArrayList<>());
+        }
+
+        int[] priorities = new int[availableMatchers];
+        int[] starts = new int[availableMatchers + 1];
+        int bands = 0;
+
+        for(int x = 0; x < availableMatchers; x++) {
+            Matcher matcher = matchers[x];
+            types.get(matcher.getTokenType()).add(matcher);
+
+            if(bands == 0 || priorities[bands - 1] != matcher.getPriority()) {
+                priorities[bands] = matcher.getPriority();
+                starts[bands++] = x;
+            }
+        }
+        starts[bands] = availableMatchers;
+
+        EnumMap<TokenType, List<Matcher>> typeIndex = new EnumMap<>(TokenType.class);
+        types.forEach((type, list) -> typeIndex.put(type, Collections.unmodifiableList(list)));
+        current = new Index(typeIndex, Arrays.copyOf(priorities, bands), Arrays.copyOf(starts, bands + 1), mods);
+        index = current;
+        return current;
+    }
+
     /**
      * Sorts all of the matchers by priority using a {@code QuickSort}
      *
@@ -128,22 +304,22 @@ public class MatcherList implements List<Matcher> {
      * Counts the number of non-null values in the matchers array
      * Only use this if the array is empty or sorted
      * The sort should push all null values to the back so the first null is the end of available matchers
-     * Don't use all the time as iteration is slow
      */
     private void countNonNulls() {
+        availableMatchers = matchers.length;
         for(int x = 0; x < matchers.length; x++) {
             if(matchers[x] == null) {
                 availableMatchers = x;
+                break;
             }
         }
-        availableMatchers = matchers.length;
     }
 
     /**
      * Shifts all the elements in the array by an amount
      * If a shift is negative, after an element at the end is shifted the new value will be null
      *
-     * WARNING if the shift is negative all elements at offset+shift to offset will be overridden
+     * WARNING if the shift is negative all elements at offset to offset-shift will be overridden
      *
      * @param offset the offset to start shifting at
      * @param shift the amount to shift
@@ -155,25 +331,37 @@ public class MatcherList implements List<Matcher> {
         if(shift > 0) {
             if(availableMatchers + shift > this.matchers.length)
                 increaseSize(shift);
-            for (int x = availableMatchers; x > offset; x--) {
-                int swapIndex = x - shift;
-                if (swapIndex >= this.matchers.length)
-                    break;
-                this.matchers[x] = this.matchers[swapIndex];
-            }
+            System.arraycopy(matchers, offset, matchers, offset + shift, availableMatchers - offset);
         } else {
-            for(int x = offset; x < availableMatchers; x++) {
-                int swapIndex = x+1;
-                if(swapIndex >= availableMatchers)
-                    break;
-                this.matchers[x] = this.matchers[swapIndex];
-            }
+            System.arraycopy(matchers, offset - shift, matchers, offset, availableMatchers - offset + shift);
+            Arrays.fill(matchers, availableMatchers + shift, availableMatchers, null);
             availableMatchers+=shift; //Only removing actually subtracts from the available matchers
         }
     }
 
+    /**
+     * Finds the index of the first {@code Matcher} with a priority that isn't less than the priority
+     *
+     * @param priority the priority to look for
+     * @return the index, {@link #size()} if every priority is less
+     */
+    private int lowerBound(int priority) {
+        int low = 0;
+        int high = availableMatchers;
+
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(matchers[mid].getPriority() < priority)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
     /**
      * Adds 1 value to the array in the spot it goes and returns the index it was put at
+     * The value goes before any {@code Matcher}s with the same priority
      * Used by the Iterator and ListIterator because adding creates an uncertainty about the new location because of the QuickSort but if I just insert the value then we are all good
      *
      * @param matcher the matcher to add
@@ -181,18 +369,52 @@ public class MatcherList implements List<Matcher> {
      */
     private int add1(Matcher matcher) {
         listMods++;
-        for(int x = 0; x < availableMatchers; x++) {
-            if(matchers[x].getPriority() >= matcher.getPriority()) {
-                shiftArray(x, 1); //{1, 2, 4, 5} -> {1, 2, 4, 4, 5}
-                matchers[x] = matcher; //{1, 2, 4, 4, 5} -> {1, 2, 3, 4, 5}
-                availableMatchers++;
-                return x;
-            }
+        int x = lowerBound(matcher.getPriority());
+
+        shiftArray(x, 1); //{1, 2, 4, 5} -> {1, 2, 4, 4, 5}
+        matchers[x] = matcher; //{1, 2, 4, 4, 5} -> {1, 2, 3, 4, 5}
+        availableMatchers++;
+        return x;
+    }
+
+    /**
+     * Adds a batch of {@code Matcher}s with one sort and one merge instead of one insert each
+     * The result is the same as adding the {@code Matcher}s one at a time with {@link #add1(Matcher)}
+     *
+     * @param batch the {@code Matcher}s to add, {@code null}s are ignored
+     * @return {@code true} if any {@code Matcher}s were added
+     */
+    private boolean addBatch(Matcher[] batch) {
+        //Adding one at a time puts a matcher before earlier ones with the same priority so reverse before the stable sort
+        Matcher[] sorted = new Matcher[batch.length];
+        int count = 0;
+        for(int x = batch.length - 1; x >= 0; x--) {
+            if(batch[x] != null)
+                sorted[count++] = batch[x];
+        }
+        if(count == 0)
+            return false;
+
+        sorted = Arrays.copyOf(sorted, count);
+        MERGE_SORT.sort(sorted);
+
+        if(availableMatchers + count > matchers.length)
+            increaseSize(availableMatchers + count - matchers.length);
+
+        //Merge from the back so the existing matchers don't need to be copied first, ties go to the existing ones at the back
+        int i = availableMatchers - 1;
+        int j = count - 1;
+        int k = availableMatchers + count - 1;
+        while(j >= 0) {
+            if(i >= 0 && matchers[i].getPriority() >= sorted[j].getPriority())
+                matchers[k--] = matchers[i--];
+            else
+                matchers[k--] = sorted[j--];
         }
-        if(availableMatchers == matchers.length)
-            increaseSize(1);
-        matchers[availableMatchers] = matcher;
-        return availableMatchers++;
+
+        availableMatchers += count;
+        listMods++;
+        return true;
     }
 
     /**
@@ -347,49 +569,18 @@ public class MatcherList implements List<Matcher> {
      */
     @Override
     public boolean addAll(Collection<? extends Matcher> c) {
-        if(c.size()+availableMatchers > matchers.length) {
-            increaseSize(c.size());
-        }
-
-        int b4 = availableMatchers;
-
-        for(Matcher o: c) {
-            if(o != null)
-                add1(o);
-        }
-
-        if(b4 != availableMatchers) {
-            listMods++;
-            return true;
-        } else {
-            return false;
-        }
+        return addBatch(c.toArray(EMPTY_MATCHER_ARRAY));
     }
 
     /**
      * Adds all of the {@code Matcher}s to the matcher list
+     * The {@code Matcher}s are sorted and merged into the list at once so loading a large lexicon doesn't shift the list for every {@code Matcher}
      *
      * @param matchers the {@code Matcher}s to add
      * @return {@code true} if the list was changed
      */
     public boolean addAll(Matcher... matchers) {
-        if(matchers.length+availableMatchers > matchers.length) {
-            increaseSize(matchers.length);
-        }
-
-        int b4 = availableMatchers;
-
-        for(Matcher o: matchers) {
-            if(o != null)
-                add1(o);
-        }
-
-        if(b4 != availableMatchers) {
-            listMods++;
-            return true;
-        } else {
-            return false;
-        }
+        return addBatch(matchers);
     }
 
     /**
@@ -427,6 +618,7 @@ public class MatcherList implements List<Matcher> {
      */
     @Override
     public void clear() {
+        listMods++;
         Arrays.fill(matchers, null);
         availableMatchers = 0;
     }
@@ -446,7 +638,6 @@ public class MatcherList implements List<Matcher> {
     public Matcher set(int index, Matcher element) {
         Matcher m = matchers[index];
 
-        availableMatchers--;
         remove(index);
         if(element != null) {//Organization not needed because removing an element in an organized list does not disorder it eg. {1, 2, 3, 4} -> {1, 2, 4}
             add1(element);
@@ -717,4 +908,37 @@ public class MatcherList implements List<Matcher> {
             return index-1; //If the index is at the beginning of the list than 0-1 = -1
         }
     }
+
+    /**
+     * The {@code TokenType} and priority indexes of the list at one number of modifications
+     * Nothing in an {@code Index} changes after it is made
+     */
+    private static final class Index {
+        /**
+         * The {@code Matcher}s of every {@code TokenType} in priority order
+         */
+        private final EnumMap<TokenType, List<Matcher>> types;
+
+        /**
+         * Every different priority in the list in order
+         */
+        private final int[] priorities;
+
+        /**
+         * The index of the first {@code Matcher} of every priority in {@link #priorities} followed by the size of the list
+         */
+        private final int[] starts;
+
+        /**
+         * The number of modifications to the list when the index was built
+         */
+        private final int mods;
+
+        private Index(EnumMap<TokenType, List<Matcher>> types, int[] priorities, int[] starts, int mods) {
+            this.types = types;
+            this.priorities = priorities;
+            this.starts = starts;
+            this.mods = mods;
+        }
+    }
 }
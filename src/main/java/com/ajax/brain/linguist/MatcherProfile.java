@@ -0,0 +1,135 @@
+package com.ajax.brain.linguist;
+
+import java.util.IdentityHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how often every {@code Matcher} of a {@code CompiledMatcherSet} is tried and how often it matches
+ * Set it on the {@code Lexer}s that use the set with {@link Lexer#setProfile(MatcherProfile)} and pass it to
+ * {@link MatcherList#reorder(MatcherProfile)} to try the most common {@code Matcher}s first
+ *
+ * A {@code Matcher} whose words are looked up in the set's trie counts as one try when it matches, only the
+ * {@code Matcher}s that are checked one at a time are tried when they don't match
+ * The counts are safe to update from many lexers at once
+ */
+public final class MatcherProfile {
+    /**
+     * The set being profiled
+     */
+    private final CompiledMatcherSet matchers;
+
+    /**
+     * The rank of every {@code Matcher} in the set
+     */
+    private final IdentityHashMap<Matcher, Integer> ranks;
+
+    /**
+     * The number of times every {@code Matcher} was tried, indexed by rank
+     */
+    private final AtomicLongArray tries;
+
+    /**
+     * The number of times every {@code Matcher} matched, indexed by rank
+     */
+    private final AtomicLongArray hits;
+
+    /**
+     * Creates an empty profile for the set
+     *
+     * @param matchers the set to profile
+     * @see MatcherList#freeze()
+     */
+    public MatcherProfile(CompiledMatcherSet matchers) {
+        this.matchers = matchers;
+        this.ranks = new IdentityHashMap<>();
+        this.tries = new AtomicLongArray(matchers.size());
+        this.hits = new AtomicLongArray(matchers.size());
+
+        Matcher[] ranked = matchers.matchers();
+        for(int rank = ranked.length - 1; rank >= 0; rank--) {
+            ranks.put(ranked[rank], rank); //The lowest rank wins if a Matcher is in the set twice
+        }
+    }
+
+    /**
+     * Returns the profiled set
+     *
+     * @return the set
+     */
+    public CompiledMatcherSet getMatcherSet() {
+        return matchers;
+    }
+
+    /**
+     * Returns the number of times the {@code Matcher} was tried
+     *
+     * @param matcher the {@code Matcher}
+     * @return the number of tries, 0 if the {@code Matcher} isn't in the set
+     */
+    public long getTries(Matcher matcher) {
+        Integer rank = ranks.get(matcher);
+        return rank == null? 0: tries.get(rank);
+    }
+
+    /**
+     * Returns the number of times the {@code Matcher} matched
+     *
+     * @param matcher the {@code Matcher}
+     * @return the number of hits, 0 if the {@code Matcher} isn't in the set
+     */
+    public long getHits(Matcher matcher) {
+        Integer rank = ranks.get(matcher);
+        return rank == null? 0: hits.get(rank);
+    }
+
+    /**
+     * Returns the fraction of tries of the {@code Matcher} that matched
+     *
+     * @param matcher the {@code Matcher}
+     * @return the hit rate or 0 if the {@code Matcher} was never tried
+     */
+    public double getHitRate(Matcher matcher) {
+        long tried = getTries(matcher);
+        return tried == 0? 0: (double) getHits(matcher) / tried;
+    }
+
+    /**
+     * Sets every count back to 0
+     */
+    public void reset() {
+        for(int rank = 0; rank < tries.length(); rank++) {
+            tries.set(rank, 0);
+            hits.set(rank, 0);
+        }
+    }
+
+    /**
+     * Counts a try that didn't match
+     *
+     * @param rank the rank of the {@code Matcher}
+     */
+    void miss(int rank) {
+        tries.incrementAndGet(rank);
+    }
+
+    /**
+     * Counts a try that matched
+     *
+     * @param rank the rank of the {@code Matcher}
+     */
+    void hit(int rank) {
+        tries.incrementAndGet(rank);
+        hits.incrementAndGet(rank);
+    }
+
+    /**
+     * Counts a try that matched
+     *
+     * @param matcher the {@code Matcher}
+     */
+    void hit(Matcher matcher) {
+        Integer rank = ranks.get(matcher);
+        if(rank != null)
+            hit(rank);
+    }
+}
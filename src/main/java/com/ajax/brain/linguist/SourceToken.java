@@ -0,0 +1,59 @@
+package com.ajax.brain.linguist;
+
+/**
+ * A token whose value is still in the lexed data
+ * The {@code String} is decoded the first time the value is asked for and kept in the token
+ *
+ * With compressed references a {@code SourceToken} is 40 bytes and no {@code String} until it is decoded, a token made
+ * with a {@code String} stays at the 24 bytes of a type and a value
+ */
+final class SourceToken extends Token {
+    /**
+     * The data the value is decoded from
+     */
+    private final TokenSource source;
+
+    /**
+     * The start of the value in the source
+     */
+    private final int offset;
+
+    /**
+     * The number of bytes of the value in the source
+     */
+    private final int length;
+
+    /**
+     * The decoded value or {@code null} until it is asked for
+     */
+    private String decoded;
+
+    /**
+     * Creates a token with the given type whose value is in the source
+     *
+     * @param type the type of the token
+     * @param source the data holding the value
+     * @param offset the start of the value in the source
+     * @param length the number of bytes of the value
+     */
+    SourceToken(TokenType type, TokenSource source, int offset, int length) {
+        super(type, null);
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the token value, decoding it the first time
+     * @return the token value
+     */
+    @Override
+    public String getValue() {
+        String v = decoded;
+        if(v == null) {
+            v = source.decode(offset, length);
+            decoded = v; //Racing threads decode the same String so it doesn't matter which one is kept
+        }
+        return v;
+    }
+}
@@ -0,0 +1,386 @@
+package com.ajax.brain.linguist;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Interns words by their bytes so every occurrence of a word shares one canonical {@code String} and one symbol ID
+ * A few common words make up most of any text so a {@code Lexer} with a symbol table stops creating a {@code String}
+ * for every "the" and "and", and tokens with the same value hold the same {@code String} so comparing them is cheap
+ *
+ * The table is bounded, once it is full new words are not interned and the {@code Lexer} treats them like it would
+ * without a table
+ * The table is safe to share between lexers and threads, looking up a word that is already interned takes no lock and
+ * only adding a word does
+ */
+public final class SymbolTable {
+    /**
+     * The number of symbols a table holds when no capacity is given
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * The ID returned for words that can't be interned
+     */
+    public static final int NO_SYMBOL = -1;
+
+    /**
+     * Words longer than this are not interned, they are rarely repeated
+     */
+    private static final int MAX_SYMBOL_LENGTH = 64;
+
+    /**
+     * The number of symbols the arrays can hold before they grow
+     */
+    private static final int INITIAL_SIZE = 256;
+
+    /**
+     * The most symbols the table will hold
+     */
+    private final int capacity;
+
+    /**
+     * The charset the words are decoded with
+     */
+    private final Charset charset;
+
+    /**
+     * The symbols lookups read, a new {@code Table} is published under the lock every time a symbol is added
+     */
+    private volatile Table table;
+
+    /**
+     * The number of bytes used in the bytes of the table, only used under the lock
+     */
+    private int bytesLength;
+
+    /**
+     * Creates a {@code SymbolTable} with the default capacity for the {@code Lexer}'s default charset
+     */
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a {@code SymbolTable} for the {@code Lexer}'s default charset
+     *
+     * @param capacity the most symbols to hold
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public SymbolTable(int capacity) {
+        this(capacity, Lexer.DEFAULT_CHARSET);
+    }
+
+    /**
+     * Creates a {@code SymbolTable}
+     *
+     * @param capacity the most symbols to hold
+     * @param charset the charset to decode words with
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public SymbolTable(int capacity, Charset charset) {
+        if(capacity <= 0)
+            throw new IllegalArgumentException("The capacity must be greater than 0");
+
+        int initialSize = Math.min(capacity, INITIAL_SIZE);
+        this.capacity = capacity;
+        this.charset = charset;
+        this.table = new Table(new int[Integer.highestOneBit(initialSize) * 4], new int[initialSize], new int[initialSize],
+                new int[initialSize], new String[initialSize], new byte[initialSize * 8], 0);
+    }
+
+    /**
+     * Returns the charset words are decoded with
+     *
+     * @return the charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Returns the number of symbols in the table
+     *
+     * @return the number of symbols
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * Returns the most symbols the table will hold
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Interns a word, useful for adding a known vocabulary before lexing
+     *
+     * @param word the word to intern
+     * @return the symbol ID of the word or {@link #NO_SYMBOL} if it can't be interned
+     */
+    public int intern(String word) {
+        byte[] wordBytes = word.getBytes(charset);
+        return intern(ByteBuffer.wrap(wordBytes), 0, wordBytes.length);
+    }
+
+    /**
+     * Returns the canonical {@code String} of a symbol
+     *
+     * @param id the symbol ID
+     * @return the canonical {@code String}
+     * @throws IndexOutOfBoundsException if there is no symbol with the ID
+     */
+    public String get(int id) {
+        Table current = table;
+        return current.symbols[Objects.checkIndex(id, current.size)];
+    }
+
+    /**
+     * Finds the symbol ID of a word without interning it
+     *
+     * @param word the word to look up
+     * @return the symbol ID or {@link #NO_SYMBOL} if the word isn't in the table
+     */
+    public int find(String word) {
+        byte[] wordBytes = word.getBytes(charset);
+        ByteBuffer buffer = ByteBuffer.wrap(wordBytes);
+
+        return table.find(buffer, 0, wordBytes.length, hash(buffer, 0, wordBytes.length));
+    }
+
+    /**
+     * Interns the word in the buffer, the bytes are only copied the first time the word is seen
+     *
+     * @param buffer the buffer holding the word
+     * @param offset the start of the word
+     * @param length the length of the word
+     * @return the symbol ID of the word or {@link #NO_SYMBOL} if it is too long or the table is full
+     */
+    int intern(ByteBuffer buffer, int offset, int length) {
+        if(length > MAX_SYMBOL_LENGTH)
+            return NO_SYMBOL;
+
+        int hash = hash(buffer, offset, length);
+        Table current = table;
+        int id = current.find(buffer, offset, length, hash);
+        if(id != NO_SYMBOL || current.size >= capacity)
+            return id; //A full table never takes the lock
+        return add(buffer, offset, length, hash);
+    }
+
+    /**
+     * Interns the word in the buffer and returns its canonical {@code String}
+     *
+     * @param buffer the buffer holding the word
+     * @param offset the start of the word
+     * @param length the length of the word
+     * @return the canonical {@code String} or {@code null} if the word can't be interned
+     */
+    String value(ByteBuffer buffer, int offset, int length) {
+        if(length > MAX_SYMBOL_LENGTH)
+            return null;
+
+        int hash = hash(buffer, offset, length);
+        Table current = table;
+        int id = current.find(buffer, offset, length, hash);
+        if(id != NO_SYMBOL)
+            return current.symbols[id];
+        if(current.size >= capacity)
+            return null; //A full table never takes the lock
+
+        id = add(buffer, offset, length, hash);
+        return id == NO_SYMBOL? null: table.symbols[id];
+    }
+
+    /**
+     * Adds the word if no other thread added it first then publishes the new table
+     * The arrays are only written past the size of the published table, except for empty slots, so lookups reading the
+     * old table never see a symbol that isn't finished
+     *
+     * @return the symbol ID of the word or {@link #NO_SYMBOL} if the table is full
+     */
+    private synchronized int add(ByteBuffer buffer, int offset, int length, int hash) {
+        Table current = table;
+        int[] slots = current.slots;
+        int slot = current.slot(buffer, offset, length, hash);
+        if(slots[slot] != 0)
+            return slots[slot] - 1;
+
+        int id = current.size;
+        if(id == capacity)
+            return NO_SYMBOL;
+
+        int[] hashes = current.hashes;
+        int[] offsets = current.offsets;
+        int[] lengths = current.lengths;
+        String[] symbols = current.symbols;
+        byte[] bytes = current.bytes;
+        if(id == symbols.length) {
+            int newSize = Math.min(id * 2, capacity);
+            hashes = Arrays.copyOf(hashes, newSize);
+            offsets = Arrays.copyOf(offsets, newSize);
+            lengths = Arrays.copyOf(lengths, newSize);
+            symbols = Arrays.copyOf(symbols, newSize);
+        }
+        if(bytesLength + length > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, bytesLength + length));
+
+        buffer.get(offset, bytes, bytesLength, length);
+        hashes[id] = hash;
+        offsets[id] = bytesLength;
+        lengths[id] = length;
+        symbols[id] = new String(bytes, bytesLength, length, charset);
+        bytesLength += length;
+
+        if((id + 1) * 2 > slots.length)
+            slots = rehash(hashes, id + 1, slots.length * 2);
+        else
+            slots[slot] = id + 1;
+
+        table = new Table(slots, hashes, offsets, lengths, symbols, bytes, id + 1);
+        return id;
+    }
+
+    /**
+     * Puts every symbol into a new slot table
+     *
+     * @param hashes the hash of every symbol
+     * @param size the number of symbols
+     * @param newSize the new number of slots, must be a power of 2
+     * @return the new slots
+     */
+    private static int[] rehash(int[] hashes, int size, int newSize) {
+        int[] slots = new int[newSize];
+        int mask = newSize - 1;
+
+        for(int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while(slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+        return slots;
+    }
+
+    /**
+     * FNV-1a hash of the word with the bits spread for the slot table
+     */
+    private static int hash(ByteBuffer buffer, int offset, int length) {
+        int h = 0x811C9DC5;
+        for(int x = offset, end = offset + length; x < end; x++) {
+            h = (h ^ (buffer.get(x) & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The symbols of the table at one point in time
+     * Nothing below the size is ever changed and the arrays are reached through final fields of a volatile write, so a
+     * lookup sees every symbol below the size without locking
+     */
+    private static final class Table {
+        /**
+         * Open addressing hash table of symbol IDs plus 1 so that 0 is an empty slot
+         */
+        private final int[] slots;
+
+        /**
+         * The hash of every symbol
+         */
+        private final int[] hashes;
+
+        /**
+         * The start of every symbol's bytes in {@link #bytes}
+         */
+        private final int[] offsets;
+
+        /**
+         * The number of bytes of every symbol
+         */
+        private final int[] lengths;
+
+        /**
+         * The canonical {@code String} of every symbol
+         */
+        private final String[] symbols;
+
+        /**
+         * The bytes of every symbol one after another
+         */
+        private final byte[] bytes;
+
+        /**
+         * The number of symbols in the table
+         */
+        private final int size;
+
+        private Table(int[] slots, int[] hashes, int[] offsets, int[] lengths, String[] symbols, byte[] bytes, int size) {
+            this.slots = slots;
+            this.hashes = hashes;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.symbols = symbols;
+            this.bytes = bytes;
+            this.size = size;
+        }
+
+        /**
+         * Finds the ID of the word
+         * A slot holding a symbol that was added after this table was published ends the search like an empty one, the
+         * slot was empty when this table was published so the word can't be further along
+         *
+         * @return the symbol ID or {@link #NO_SYMBOL} if the word isn't in this table
+         */
+        private int find(ByteBuffer buffer, int offset, int length, int hash) {
+            int mask = slots.length - 1;
+
+            for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if(id == -1 || id >= size)
+                    return NO_SYMBOL;
+                if(hashes[id] == hash && equalBytes(id, buffer, offset, length))
+                    return id;
+            }
+        }
+
+        /**
+         * Finds the slot holding the word or the empty slot it would go in, only used under the lock
+         *
+         * @param buffer the buffer holding the word
+         * @param offset the start of the word
+         * @param length the length of the word
+         * @param hash the hash of the word
+         * @return the slot
+         */
+        private int slot(ByteBuffer buffer, int offset, int length, int hash) {
+            int mask = slots.length - 1;
+
+            for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if(id == -1 || (hashes[id] == hash && equalBytes(id, buffer, offset, length)))
+                    return slot;
+            }
+        }
+
+        /**
+         * Returns whether the symbol has the same bytes as the word
+         */
+        private boolean equalBytes(int id, ByteBuffer buffer, int offset, int length) {
+            if(lengths[id] != length)
+                return false;
+
+            int start = offsets[id];
+            for(int x = 0; x < length; x++) {
+                if(bytes[start + x] != buffer.get(offset + x))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
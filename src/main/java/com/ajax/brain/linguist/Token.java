@@ -4,10 +4,20 @@ import java.util.Objects;
 
 /**
  * The lexer produces tokens
+ * Tokens made by the lexer are usually {@code SourceToken}s that only point into the lexed data and create their
+ * {@code String} value when it is first asked for
+ * A {@code Token} is still one object per token, {@link TokenBuffer} stores many tokens without one
+ *
+ * The value is only readable through {@link #getValue()} because a token that points into the data has no value until it
+ * is decoded
  */
 public class Token {
     public final TokenType type;
-    public final String value;
+
+    /**
+     * The value of the token, {@code null} for a {@code SourceToken} which decodes its own
+     */
+    private final String value;
 
     /**
      * Creates a token with the given type and value
@@ -22,8 +32,7 @@ public class Token {
      * The character is converted to a {@code String} using {@code String.valueOf(char)}
      */
     public Token(TokenType type, char value) {
-        this.type = type;
-        this.value = String.valueOf(value);
+        this(type, String.valueOf(value));
     }
 
     /**
@@ -36,6 +45,7 @@ public class Token {
 
     /**
      * Returns the stored token value
+     * The value is decoded the first time this is called if the token points into the lexed data
      * @return the token value
      */
     public String getValue() {
@@ -49,7 +59,8 @@ public class Token {
      * @see String#isEmpty()
      */
     public boolean emptyToken() {
-        return value == null || value.isEmpty();
+        String v = getValue();
+        return v == null || v.isEmpty();
     }
 
     /**
@@ -59,7 +70,7 @@ public class Token {
      * @throws NullPointerException if the stored String is null
      */
     public char getFirstChar() {
-        return value.charAt(0);
+        return getValue().charAt(0);
     }
 
     /**
@@ -70,10 +81,10 @@ public class Token {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Token)) return false; //Lexed tokens are equal to the same tokens made with a String
         Token token = (Token) o;
         return type == token.type &&
-                Objects.equals(value, token.value);
+                Objects.equals(getValue(), token.getValue());
     }
 
     /**
@@ -82,7 +93,7 @@ public class Token {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(type, value);
+        return Objects.hash(type, getValue());
     }
 
     /**
@@ -93,7 +104,7 @@ public class Token {
     public String toString() {
         return "Token{" +
                 "type=" + type +
-                ", value='" + value + '\'' +
+                ", value='" + getValue() + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,359 @@
+package com.ajax.brain.linguist;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Stores tokens in columns of primitives instead of one object per token
+ * Every token is a {@code TokenType} ordinal, a start and a length, about 9 bytes, that point into the lexed data
+ * so passes that only look at the types of the tokens scan a single {@code byte[]}
+ *
+ * Tokens whose data would be overwritten by the lexer, like tokens from an {@code InputStream}, are copied into blocks
+ * owned by the buffer
+ */
+public final class TokenBuffer implements Iterable<Token> {
+    /**
+     * Every {@code TokenType} by ordinal
+     */
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    /**
+     * The initial number of tokens the buffer can hold when none is given
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The size of the blocks that copied tokens are stored in
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * The {@code TokenType} ordinal of every token
+     */
+    private byte[] types;
+
+    /**
+     * The start of every token in its source
+     */
+    private int[] starts;
+
+    /**
+     * The length in bytes of every token
+     */
+    private int[] lengths;
+
+    /**
+     * The number of tokens in the buffer
+     */
+    private int size;
+
+    /**
+     * The sources the tokens point into, a new source starts at the token in {@link #segmentStarts}
+     */
+    private TokenSource[] segmentSources;
+
+    /**
+     * The index of the first token of each source
+     */
+    private int[] segmentStarts;
+
+    /**
+     * The number of sources
+     */
+    private int segments;
+
+    /**
+     * The block copied tokens are put in
+     */
+    private byte[] block;
+
+    /**
+     * The source for the current block
+     */
+    private TokenSource blockSource;
+
+    /**
+     * The number of bytes used in the current block
+     */
+    private int blockLength;
+
+    /**
+     * Creates an empty {@code TokenBuffer}
+     */
+    public TokenBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty {@code TokenBuffer} that can hold the provided number of tokens before it grows
+     *
+     * @param capacity the initial capacity
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public TokenBuffer(int capacity) {
+        if(capacity < 0)
+            throw new IllegalArgumentException("The capacity must not be negative");
+
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.segmentSources = new TokenSource[4];
+        this.segmentStarts = new int[4];
+    }
+
+    /**
+     * Returns the number of tokens in the buffer
+     *
+     * @return the number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the buffer has no tokens
+     *
+     * @return {@code true} if there are no tokens
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the type of the token
+     *
+     * @param index the index of the token
+     * @return the type of the token
+     * @throws IndexOutOfBoundsException if the index is not less than {@link #size()}
+     */
+    public TokenType getType(int index) {
+        return TOKEN_TYPES[types[Objects.checkIndex(index, size)]];
+    }
+
+    /**
+     * Returns the length in bytes of the token
+     *
+     * @param index the index of the token
+     * @return the length of the token
+     * @throws IndexOutOfBoundsException if the index is not less than {@link #size()}
+     */
+    public int getLength(int index) {
+        return lengths[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Decodes the value of the token
+     *
+     * @param index the index of the token
+     * @return the value of the token
+     * @throws IndexOutOfBoundsException if the index is not less than {@link #size()}
+     */
+    public String getValue(int index) {
+        Objects.checkIndex(index, size);
+        return sourceOf(index).decode(starts[index], lengths[index]);
+    }
+
+    /**
+     * Returns the token as a {@code Token}, the {@code Token} points into the same data as the buffer
+     *
+     * @param index the index of the token
+     * @return the token
+     * @throws IndexOutOfBoundsException if the index is not less than {@link #size()}
+     */
+    public Token getToken(int index) {
+        Objects.checkIndex(index, size);
+        return new SourceToken(TOKEN_TYPES[types[index]], sourceOf(index), starts[index], lengths[index]);
+    }
+
+    /**
+     * Counts the tokens of the type
+     *
+     * @param type the type to count
+     * @return the number of tokens of the type
+     */
+    public int count(TokenType type) {
+        byte ordinal = (byte) type.ordinal();
+        int count = 0;
+
+        for(int x = 0; x < size; x++) {
+            if(types[x] == ordinal)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the next token of the type
+     *
+     * @param type the type to look for
+     * @param fromIndex the index to start looking at
+     * @return the index of the next token of the type or -1 if there are none
+     */
+    public int indexOf(TokenType type, int fromIndex) {
+        byte ordinal = (byte) type.ordinal();
+
+        for(int x = Math.max(fromIndex, 0); x < size; x++) {
+            if(types[x] == ordinal)
+                return x;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes every token so the buffer can be reused for the next batch
+     */
+    public void clear() {
+        Arrays.fill(segmentSources, 0, segments, null);
+        size = 0;
+        segments = 0;
+        block = null;
+        blockSource = null;
+        blockLength = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Token> iterator() {
+        return new TokenBufferIterator();
+    }
+
+    /**
+     * Adds a token that points into a source
+     *
+     * @param type the type of the token
+     * @param source the data the token points into
+     * @param start the start of the token in the source
+     * @param length the length of the token
+     */
+    void add(TokenType type, TokenSource source, int start, int length) {
+        if(segments == 0 || segmentSources[segments - 1] != source) {
+            if(segments == segmentSources.length) {
+                segmentSources = Arrays.copyOf(segmentSources, segments * 2);
+                segmentStarts = Arrays.copyOf(segmentStarts, segments * 2);
+            }
+            segmentSources[segments] = source;
+            segmentStarts[segments] = size;
+            segments++;
+        }
+
+        if(size == types.length) {
+            int capacity = Math.max(size * 2, DEFAULT_CAPACITY);
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * Adds a token by copying its bytes into a block owned by the buffer
+     *
+     * @param type the type of the token
+     * @param buffer the buffer holding the token
+     * @param offset the start of the token in the buffer
+     * @param length the length of the token
+     * @param charset the charset of the token
+     */
+    void add(TokenType type, ByteBuffer buffer, int offset, int length, Charset charset) {
+        if(block == null || blockLength + length > block.length) {
+            block = new byte[Math.max(BLOCK_SIZE, length)];
+            blockSource = new TokenSource(ByteBuffer.wrap(block), charset);
+            blockLength = 0;
+        }
+
+        buffer.get(offset, block, blockLength, length);
+        add(type, blockSource, blockLength, length);
+        blockLength += length;
+    }
+
+    /**
+     * Finds the source of the token
+     *
+     * @param index the index of the token
+     * @return the source the token points into
+     */
+    private TokenSource sourceOf(int index) {
+        int segment = Arrays.binarySearch(segmentStarts, 0, segments, index);
+        if(segment < 0)
+            segment = -segment - 2; //The segment before the insertion point
+        else
+            while(segment + 1 < segments && segmentStarts[segment + 1] == index)
+                segment++; //Skip segments that lost all of their tokens
+
+        return segmentSources[segment];
+    }
+
+    /**
+     * Removes the token and shifts the later tokens down
+     *
+     * @param index the index of the token
+     */
+    private void remove(int index) {
+        int moved = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(starts, index + 1, starts, index, moved);
+        System.arraycopy(lengths, index + 1, lengths, index, moved);
+        size--;
+
+        for(int x = 0; x < segments; x++) {
+            if(segmentStarts[x] > index)
+                segmentStarts[x]--;
+        }
+    }
+
+    /**
+     * Iterator for the {@code TokenBuffer}, works like the {@code Lexer}'s iterator
+     */
+    public class TokenBufferIterator implements Iterator<Token> {
+        /**
+         * The current index of the iterator
+         */
+        private int index = 0;
+
+        /**
+         * The last element returned by next
+         */
+        private int removable = -1;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return index != size;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Token next() {
+            if(!hasNext())
+                throw new NoSuchElementException("No elements left in the TokenBufferIterator");
+            removable = index;
+            return getToken(index++);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            if(removable == -1)
+                throw new IllegalStateException("You must call next() before remove()");
+            TokenBuffer.this.remove(removable);
+            index = removable;
+            removable = -1;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ajax.brain.linguist;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A buffer of lexed data that tokens point into instead of holding their own {@code String}s
+ * The buffer must not change while any token points into it
+ */
+final class TokenSource {
+    /**
+     * The lexed data
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The charset the data is encoded in
+     */
+    private final Charset charset;
+
+    /**
+     * Creates a new {@code TokenSource}
+     *
+     * @param buffer the lexed data, read with absolute indexes so its position doesn't matter
+     * @param charset the charset the data is encoded in
+     */
+    TokenSource(ByteBuffer buffer, Charset charset) {
+        this.buffer = buffer;
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the buffer of lexed data
+     *
+     * @return the buffer
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Decodes part of the data into a {@code String}
+     *
+     * @param offset the start of the part
+     * @param length the number of bytes in the part
+     * @return the decoded {@code String}
+     */
+    String decode(int offset, int length) {
+        return decode(buffer, offset, length, charset);
+    }
+
+    /**
+     * Decodes part of a buffer into a {@code String}
+     *
+     * @param buffer the buffer to decode from
+     * @param offset the start of the part
+     * @param length the number of bytes in the part
+     * @param charset the charset the buffer is encoded in
+     * @return the decoded {@code String}
+     */
+    static String decode(ByteBuffer buffer, int offset, int length, Charset charset) {
+        if(buffer.hasArray())
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, charset);
+
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, charset);
+    }
+}
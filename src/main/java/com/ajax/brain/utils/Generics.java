@@ -27,4 +27,20 @@ public final class Generics {
     public static <T> T[] newGenericArray(T[] arr, int length) {
         return (T[]) Array.newInstance(arr.getClass().getComponentType(), length);
     }
+
+    /**
+     * Creates a new array of the type
+     *
+     * For sorts that have no array to copy the type from, the component type is real so the array can be given to any
+     * {@code Sort}
+     *
+     * @param type the class of the elements
+     * @param length the length of the new array
+     * @param <T> the type of the array
+     * @return the new array
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T[] newGenericArray(Class<T> type, int length) {
+        return (T[]) Array.newInstance(type, length);
+    }
 }
@@ -0,0 +1,486 @@
+package com.ajax.brain.utils.sorts;
+
+import com.ajax.brain.utils.Generics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Sorts more records than fit in memory
+ *
+ * The records are read into an array of at most the run length, sorted with a {@code Sort} and written to a temporary
+ * file, then the files are merged with a heap that holds the next record of every file
+ * At most fan in files are merged at once, passes merge groups of files into new ones until no more than fan in are left
+ * and the last merge writes to the output
+ * Input that fits in one run is sorted in memory without writing any files
+ *
+ * The memory used is about the run length in records plus a {@value #BUFFER_SIZE} byte buffer for every file being merged
+ * The records are written to the files with a {@code Codec} and the files are deleted when the sort ends
+ *
+ * The sort is stable if the {@code Sort} is, records with equal keys from earlier runs go first
+ * An instance holds no state while sorting so it can be shared between threads
+ */
+public final class ExternalSort<T> {
+    /**
+     * The run length used when none is given
+     */
+    public static final int DEFAULT_RUN_LENGTH = 1 << 20;
+
+    /**
+     * The fan in used when none is given
+     */
+    public static final int DEFAULT_FAN_IN = 64;
+
+    /**
+     * The size of the buffer of every file that is read or written
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The run buffer starts this long and doubles up to the run length, so small inputs don't allocate a whole run
+     */
+    private static final int INITIAL_RUN_CAPACITY = 1 << 10;
+
+    /**
+     * Sorts the runs in memory
+     */
+    private final Sort<T> sort;
+
+    /**
+     * The {@code Representor} of the sort, orders the records while merging
+     */
+    private final Representor<T> representor;
+
+    /**
+     * Writes and reads the records of the temporary files
+     */
+    private final Codec<T> codec;
+
+    /**
+     * The class of the records, the runs are arrays of it so any {@code Sort} can sort them
+     */
+    private final Class<T> type;
+
+    /**
+     * The most records sorted in memory at once
+     */
+    private final int runLength;
+
+    /**
+     * The most files merged at once
+     */
+    private final int fanIn;
+
+    /**
+     * Where the temporary files are created, {@code null} for the default temporary directory
+     */
+    private final Path directory;
+
+    /**
+     * Creates a new {@code ExternalSort}
+     *
+     * @param sort sorts the runs in memory
+     * @param codec writes and reads the records of the temporary files
+     * @param type the class of the records
+     * @param runLength the most records sorted in memory at once
+     * @param fanIn the most files merged at once
+     * @param directory where the temporary files are created or {@code null} for the default temporary directory
+     * @throws NullPointerException if the sort, the codec or the type is null
+     * @throws IllegalArgumentException if the run length is less than 1 or the fan in is less than 2
+     */
+    private ExternalSort(Sort<T> sort, Codec<T> codec, Class<T> type, int runLength, int fanIn, Path directory) {
+        if(sort == null) {
+            throw new NullPointerException("Sort must not be null");
+        }
+        if(codec == null) {
+            throw new NullPointerException("Codec must not be null");
+        }
+        if(type == null) {
+            throw new NullPointerException("Type must not be null");
+        }
+        if(runLength < 1) {
+            throw new IllegalArgumentException("The run length must be at least 1");
+        }
+        if(fanIn < 2) {
+            throw new IllegalArgumentException("The fan in must be at least 2");
+        }
+
+        this.sort = sort;
+        this.representor = sort.getRepresentor();
+        this.codec = codec;
+        this.type = type;
+        this.runLength = runLength;
+        this.fanIn = fanIn;
+        this.directory = directory;
+    }
+
+    /**
+     * Sorts the records of the input and gives them to the output in order
+     * The output is called once the whole input has been read
+     *
+     * @param input the records to sort
+     * @param output takes the sorted records
+     * @return the number of records sorted
+     * @throws NullPointerException if the input or the output is null
+     * @throws IOException if writing or reading a temporary file fails
+     */
+    public long sort(Iterator<? extends T> input, Consumer<? super T> output) throws IOException {
+        if(input == null) {
+            throw new NullPointerException("The input can not be null");
+        }
+        if(output == null) {
+            throw new NullPointerException("The output can not be null");
+        }
+
+        List<Path> files = new ArrayList<>();
+        try {
+            List<Path> runs = new ArrayList<>();
+            T[] buffer = Generics.newGenericArray(type, Math.min(runLength, INITIAL_RUN_CAPACITY));
+            long count = 0;
+
+            do {
+                int length = 0;
+                while(length < runLength && input.hasNext()) {
+                    if(length == buffer.length)
+                        buffer = Arrays.copyOf(buffer, (int) Math.min(buffer.length * 2L, runLength));
+                    buffer[length++] = input.next();
+                }
+                count += length;
+
+                T[] run = length == buffer.length? buffer: Arrays.copyOf(buffer, length);
+                sort.sort(run);
+
+                if(runs.isEmpty() && !input.hasNext()) { //Everything fit in one run
+                    for(T value: run) {
+                        output.accept(value);
+                    }
+                    return count;
+                }
+
+                Path file = createFile(files);
+                try(DataOutputStream out = openOutput(file)) {
+                    for(T value: run) {
+                        codec.write(value, out);
+                    }
+                }
+                runs.add(file);
+            } while(input.hasNext());
+            buffer = null; //The merges don't need it
+
+            while(runs.size() > fanIn) {
+                runs = mergePass(runs, files);
+            }
+            merge(runs, output::accept);
+            return count;
+        } finally {
+            delete(files);
+        }
+    }
+
+    /**
+     * Sorts the records of a file written with the {@code Codec} into another file
+     * The output is replaced, it can not be the input
+     *
+     * @param input the file to sort
+     * @param output where to write the sorted records
+     * @return the number of records sorted
+     * @throws NullPointerException if the input or the output is null
+     * @throws IllegalArgumentException if the output is the same file as the input
+     * @throws IOException if reading the input, writing the output or using a temporary file fails
+     */
+    public long sort(Path input, Path output) throws IOException {
+        if(input == null) {
+            throw new NullPointerException("The input can not be null");
+        }
+        if(output == null) {
+            throw new NullPointerException("The output can not be null");
+        }
+        if(Files.exists(output) && Files.isSameFile(input, output)) { //Opening the output would truncate the input
+            throw new IllegalArgumentException("The output can not be the input");
+        }
+
+        try(RunReader reader = new RunReader(input, 0); DataOutputStream out = openOutput(output)) {
+            Iterator<T> records = new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    try {
+                        return reader.hasNext();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public T next() {
+                    try {
+                        if(!reader.hasNext())
+                            throw new NoSuchElementException();
+                        return reader.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+
+            return sort(records, value -> {
+                try {
+                    codec.write(value, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Merges every group of fan in runs into a new run, the groups stay in order so the sort stays stable
+     * The merged runs are deleted as soon as they are merged to keep the space used down
+     *
+     * @param runs the runs to merge
+     * @param files every file created by the sort
+     * @return the merged runs in order
+     * @throws IOException if writing or reading a file fails
+     */
+    private List<Path> mergePass(List<Path> runs, List<Path> files) throws IOException {
+        List<Path> merged = new ArrayList<>((runs.size() + fanIn - 1) / fanIn);
+
+        for(int from = 0; from < runs.size(); from += fanIn) {
+            List<Path> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+            if(group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+
+            Path file = createFile(files);
+            try(DataOutputStream out = openOutput(file)) {
+                merge(group, value -> codec.write(value, out));
+            }
+            delete(group);
+            merged.add(file);
+        }
+        return merged;
+    }
+
+    /**
+     * Merges the runs into the sink
+     * The heap is ordered by the key of the next record of every run and then by the order of the runs
+     *
+     * @param runs the runs to merge in order
+     * @param sink takes the merged records
+     * @throws IOException if reading a run or writing to the sink fails
+     */
+    private void merge(List<Path> runs, RecordSink<T> sink) throws IOException {
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            PriorityQueue<RunReader> heap = new PriorityQueue<>(runs.size(),
+                    (a, b) -> a.key != b.key? Integer.compare(a.key, b.key): Integer.compare(a.order, b.order));
+
+            for(int x = 0; x < runs.size(); x++) {
+                RunReader reader = new RunReader(runs.get(x), x);
+                readers.add(reader);
+                if(reader.advance())
+                    heap.add(reader);
+            }
+
+            while(!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                sink.accept(reader.value);
+                if(reader.advance())
+                    heap.add(reader);
+            }
+        } finally {
+            for(RunReader reader: readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Creates a temporary file and adds it to the files of the sort
+     *
+     * @param files every file created by the sort
+     * @return the new file
+     * @throws IOException if the file can't be created
+     */
+    private Path createFile(List<Path> files) throws IOException {
+        Path file = directory == null? Files.createTempFile("brain-sort", ".run"): Files.createTempFile(directory, "brain-sort", ".run");
+        files.add(file);
+        return file;
+    }
+
+    /**
+     * Opens a buffered output that replaces the file
+     *
+     * @param file the file to write
+     * @return the output
+     * @throws IOException if the file can't be opened
+     */
+    private static DataOutputStream openOutput(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+    }
+
+    /**
+     * Deletes the files that still exist
+     * Failing to delete a file doesn't fail the sort, it is only a temporary file
+     *
+     * @param files the files to delete
+     */
+    private static void delete(List<Path> files) {
+        for(Path file: files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Reads the records of a file one at a time and holds the next one while merging
+     */
+    private final class RunReader implements Closeable {
+        private final BufferedInputStream buffered;
+        private final DataInputStream in;
+
+        /**
+         * The index of the run, breaks ties between equal keys
+         */
+        private final int order;
+
+        /**
+         * The record read by the last {@link #advance()} and its key
+         */
+        private T value;
+        private int key;
+
+        private RunReader(Path file, int order) throws IOException {
+            this.buffered = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+            this.in = new DataInputStream(buffered);
+            this.order = order;
+        }
+
+        /**
+         * Returns whether there is another record by looking at the next byte
+         *
+         * @return {@code true} if the file isn't at its end
+         * @throws IOException if reading the file fails
+         */
+        private boolean hasNext() throws IOException {
+            buffered.mark(1);
+            if(buffered.read() < 0)
+                return false;
+            buffered.reset();
+            return true;
+        }
+
+        /**
+         * Reads the next record
+         *
+         * @return the record
+         * @throws IOException if reading the file fails
+         */
+        private T next() throws IOException {
+            return codec.read(in);
+        }
+
+        /**
+         * Reads the next record and its key into the reader
+         *
+         * @return {@code false} if the file is at its end
+         * @throws IOException if reading the file fails
+         */
+        private boolean advance() throws IOException {
+            if(!hasNext()) {
+                value = null;
+                return false;
+            }
+
+            value = next();
+            key = representor.convert(value);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Takes the merged records
+     */
+    @FunctionalInterface
+    private interface RecordSink<T> {
+        void accept(T value) throws IOException;
+    }
+
+    /**
+     * Writes records to and reads them from the temporary files
+     * A record has to be read back as an equal record with the same key, the bytes of one record have no length limit
+     */
+    public interface Codec<T> {
+        /**
+         * Writes the record
+         *
+         * @param value the record to write
+         * @param out where to write it
+         * @throws IOException if writing fails
+         */
+        void write(T value, DataOutput out) throws IOException;
+
+        /**
+         * Reads a record written by {@link #write(Object, DataOutput)}
+         *
+         * @param in where to read it from
+         * @return the record
+         * @throws IOException if reading fails
+         */
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * Returns a new {@code ExternalSort} that sorts runs of {@value #DEFAULT_RUN_LENGTH} records with a {@code RunSort}
+     * and merges {@value #DEFAULT_FAN_IN} files at once in the default temporary directory
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param codec writes and reads the records of the temporary files
+     * @param type the class of the records
+     * @param <T> the object type of the records
+     */
+    public static <T> ExternalSort<T> getInstance(Representor<T> representor, Codec<T> codec, Class<T> type) {
+        return new ExternalSort<>(RunSort.getInstance(representor), codec, type, DEFAULT_RUN_LENGTH, DEFAULT_FAN_IN, null);
+    }
+
+    /**
+     * Returns a new {@code ExternalSort} to be used multiple times
+     *
+     * @param sort sorts the runs in memory, its {@code Representor} orders the merges
+     * @param codec writes and reads the records of the temporary files
+     * @param type the class of the records, the runs given to the sort are arrays of it
+     * @param runLength the most records sorted in memory at once
+     * @param fanIn the most files merged at once
+     * @param directory where the temporary files are created or {@code null} for the default temporary directory
+     * @param <T> the object type of the records
+     * @throws IllegalArgumentException if the run length is less than 1 or the fan in is less than 2
+     */
+    public static <T> ExternalSort<T> getInstance(Sort<T> sort, Codec<T> codec, Class<T> type, int runLength, int fanIn, Path directory) {
+        return new ExternalSort<>(sort, codec, type, runLength, fanIn, directory);
+    }
+}
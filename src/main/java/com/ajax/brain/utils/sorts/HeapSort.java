@@ -0,0 +1,113 @@
+package com.ajax.brain.utils.sorts;
+
+/**
+ * Implementation of a HeapSort algorithm
+ *
+ * HeapSorts take O(n log n) time on every input and need no extra memory but they are slower than a good QuickSort on
+ * average, the {@code QuickSort} falls back to one when its partitions keep coming out unbalanced
+ */
+public final class HeapSort<T> extends Sort<T> {
+    /**
+     * Creates a new {@code HeapSort} with the {@code Representor}
+     *
+     * @param representor the {@code Representor} for converting objects to integers
+     * @throws NullPointerException if the representor is null
+     */
+    private HeapSort(Representor<T> representor) {
+        super(representor);
+    }
+
+    /**
+     * Sorts the provided array with a HeapSort
+     *
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
+     */
+    @Override
+    public void sort(T[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts part of the provided array with a HeapSort
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    public void sort(T[] arr, int from, int to) {
+        int n = to - from;
+
+        for(int x = n / 2 - 1; x >= 0; x--) {
+            siftDown(arr, from, x, n);
+        }
+
+        for(int end = n - 1; end > 0; end--) {
+            T temp = arr[from];
+            arr[from] = arr[from + end];
+            arr[from + end] = temp;
+
+            siftDown(arr, from, 0, end);
+        }
+    }
+
+    /**
+     * Moves the value at the index down the max heap until its children are smaller
+     *
+     * @param arr the array holding the heap
+     * @param offset the index of the root of the heap
+     * @param index the index in the heap of the value to move
+     * @param size the number of values in the heap
+     */
+    private void siftDown(T[] arr, int offset, int index, int size) {
+        T value = arr[offset + index];
+        int key = representor.convert(value);
+
+        while(true) {
+            int child = 2 * index + 1;
+            if(child >= size)
+                break;
+
+            int childKey = representor.convert(arr[offset + child]);
+            if(child + 1 < size) {
+                int rightKey = representor.convert(arr[offset + child + 1]);
+                if(rightKey > childKey) {
+                    child++;
+                    childKey = rightKey;
+                }
+            }
+
+            if(childKey <= key)
+                break;
+
+            arr[offset + index] = arr[offset + child];
+            index = child;
+        }
+        arr[offset + index] = value;
+    }
+
+    /**
+     * Sorts the provided array by constructing a new {@code HeapSort} object then using it
+     *
+     * @param arr the array to sort
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> void sort(T[] arr, Representor<T> representor) {
+        new HeapSort<T>(representor).sort(arr);
+    }
+
+    /**
+     * Returns a new {@code HeapSort} object to be used multiple times
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> HeapSort<T> getInstance(Representor<T> representor) {
+        return new HeapSort<>(representor);
+    }
+}
@@ -24,16 +24,27 @@ public final class InsertionSort<T> extends Sort<T> {
      */
     @Override
     public void sort(T[] arr) {
-        int n = arr.length;
-        for (int i = 1; i < n; ++i) {
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts part of the provided array with an InsertionSort
+     * The other sorts use this for the short ranges they split arrays into, it is fast on short or almost sorted ranges
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    public void sort(T[] arr, int from, int to) {
+        for (int i = from + 1; i < to; ++i) {
             T temp = arr[i];
             int key = representor.convert(temp);
             int j = i - 1;
 
-            /* Move elements of arr[0..i-1], that are
+            /* Move elements of arr[from..i-1], that are
                greater than key, to one position ahead
                of their current position */
-            while (j >= 0 && representor.convert(arr[j]) > key) {
+            while (j >= from && representor.convert(arr[j]) > key) {
                 arr[j + 1] = arr[j];
                 j -= 1;
             }
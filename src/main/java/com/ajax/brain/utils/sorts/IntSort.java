@@ -0,0 +1,337 @@
+package com.ajax.brain.utils.sorts;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Sorts for arrays of {@code int}s
+ * The values are compared directly so there is no boxing and no {@code Representor} in the inner loops
+ * Use these when the values are the keys, {@link KeySort} sorts objects by their keys with them
+ *
+ * @see LongSort
+ */
+public abstract class IntSort {
+    /**
+     * Ranges this short are sorted with an insertion sort
+     */
+    static final int INSERTION_SORT_THRESHOLD = 24;
+
+    /**
+     * The number of bits in a digit of the RadixSorts, shared with the {@code LongSort}s and the RadixSorts of objects
+     */
+    static final int DIGIT_BITS = 8;
+
+    /**
+     * The number of values a digit can have
+     */
+    static final int RADIX = 1 << DIGIT_BITS;
+
+    /**
+     * Masks one digit once it is shifted down
+     */
+    static final int DIGIT_MASK = RADIX - 1;
+
+    /**
+     * Flipping this bit of the highest digit orders negative values first
+     */
+    static final int SIGN_FLIP = RADIX >>> 1;
+
+    private static final IntSort QUICK_SORT = new IntQuickSort();
+    private static final IntSort MERGE_SORT = new IntMergeSort();
+    private static final IntSort RADIX_SORT = new IntRadixSort();
+
+    /**
+     * Sorts the array in ascending order
+     *
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
+     */
+    public final void sort(int[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts part of the array in ascending order
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     * @throws IndexOutOfBoundsException if the range is not in the array
+     */
+    public final void sort(int[] arr, int from, int to) {
+        Objects.checkFromToIndex(from, to, arr.length);
+        if(to - from > 1)
+            sortRange(arr, from, to);
+    }
+
+    /**
+     * Sorts a range of at least 2 values that is known to be in the array
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    protected abstract void sortRange(int[] arr, int from, int to);
+
+    /**
+     * Returns a QuickSort that picks the median of three values as the pivot
+     * A range that is still being split after 2 log n levels is sorted with a HeapSort so no input takes more than O(n log n) time
+     * It sorts in place but isn't stable, which makes no difference for plain values
+     *
+     * @return the shared {@code IntSort}
+     */
+    public static IntSort getQuickSort() {
+        return QUICK_SORT;
+    }
+
+    /**
+     * Returns a MergeSort that allocates one scratch array of the range's length for the whole sort
+     *
+     * @return the shared {@code IntSort}
+     */
+    public static IntSort getMergeSort() {
+        return MERGE_SORT;
+    }
+
+    /**
+     * Returns a least significant digit RadixSort with 8 bit digits
+     * It takes 4 passes over the values no matter how they are ordered, passes where every value has the same digit are skipped
+     *
+     * @return the shared {@code IntSort}
+     */
+    public static IntSort getRadixSort() {
+        return RADIX_SORT;
+    }
+
+    /**
+     * Sorts the range with an insertion sort
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    static void insertionSort(int[] arr, int from, int to) {
+        for(int i = from + 1; i < to; i++) {
+            int value = arr[i];
+            int j = i - 1;
+            while(j >= from && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+        }
+    }
+
+    /**
+     * Returns what to xor the digit at the shift with, the sign bit is flipped in the highest digit so negative values
+     * sort before positive ones, shared with the {@code LongSort}s and the RadixSorts of objects
+     *
+     * @param shift where the digit is in the value
+     * @param bits the number of bits in the value
+     * @return {@link #SIGN_FLIP} for the highest digit or 0
+     */
+    static int signFlip(int shift, int bits) {
+        return shift == bits - DIGIT_BITS? SIGN_FLIP: 0;
+    }
+
+    /**
+     * Turns the count of every digit into the index where the values with that digit start, shared with the {@code LongSort}s
+     * and the RadixSorts of objects
+     *
+     * @param counts the count of every digit
+     * @param start the index the values with the lowest digit start at
+     */
+    static void countsToOffsets(int[] counts, int start) {
+        for(int x = 0, total = start; x < counts.length; x++) {
+            int count = counts[x];
+            counts[x] = total;
+            total += count;
+        }
+    }
+
+    /**
+     * Sorts the range with a HeapSort
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    static void heapSort(int[] arr, int from, int to) {
+        int n = to - from;
+
+        for(int x = n / 2 - 1; x >= 0; x--) {
+            siftDown(arr, from, x, n);
+        }
+
+        for(int end = n - 1; end > 0; end--) {
+            int temp = arr[from];
+            arr[from] = arr[from + end];
+            arr[from + end] = temp;
+
+            siftDown(arr, from, 0, end);
+        }
+    }
+
+    /**
+     * Moves the value at the index down the max heap until its children are smaller
+     *
+     * @param arr the array holding the heap
+     * @param offset the index of the root of the heap
+     * @param index the index in the heap of the value to move
+     * @param size the number of values in the heap
+     */
+    private static void siftDown(int[] arr, int offset, int index, int size) {
+        int value = arr[offset + index];
+
+        while(true) {
+            int child = 2 * index + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && arr[offset + child + 1] > arr[offset + child])
+                child++;
+            if(arr[offset + child] <= value)
+                break;
+
+            arr[offset + index] = arr[offset + child];
+            index = child;
+        }
+        arr[offset + index] = value;
+    }
+
+    private static class IntQuickSort extends IntSort {
+        @Override
+        protected void sortRange(int[] arr, int from, int to) {
+            sort(arr, from, to, QuickSort.depthLimit(to - from));
+        }
+
+        /**
+         * Sorts the range, a range that is still being split after 2 log n levels is heap sorted
+         *
+         * @param depth the number of times the range can still be split before it is heap sorted
+         */
+        private static void sort(int[] arr, int from, int to, int depth) {
+            while(to - from > INSERTION_SORT_THRESHOLD) {
+                if(depth-- == 0) {
+                    heapSort(arr, from, to);
+                    return;
+                }
+
+                int split = partition(arr, from, to);
+
+                //Recurse into the smaller side so the stack never gets deeper than log n
+                if(split - from < to - split) {
+                    sort(arr, from, split, depth);
+                    from = split;
+                } else {
+                    sort(arr, split, to, depth);
+                    to = split;
+                }
+            }
+            insertionSort(arr, from, to);
+        }
+
+        /**
+         * Hoare partition around the median of the first, middle and last values
+         * Values equal to the pivot end up on both sides so runs of equal values split evenly
+         *
+         * @return the index where the second part starts, both parts are not empty
+         */
+        private static int partition(int[] arr, int from, int to) {
+            int last = to - 1;
+            int mid = (from + last) >>> 1;
+            if(arr[mid] < arr[from]) swap(arr, mid, from);
+            if(arr[last] < arr[from]) swap(arr, last, from);
+            if(arr[last] < arr[mid]) swap(arr, last, mid);
+            int pivot = arr[mid];
+
+            int i = from - 1;
+            int j = to;
+            while(true) {
+                do i++; while(arr[i] < pivot);
+                do j--; while(arr[j] > pivot);
+                if(i >= j)
+                    return j + 1;
+                swap(arr, i, j);
+            }
+        }
+
+        private static void swap(int[] arr, int i, int j) {
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+
+    private static class IntMergeSort extends IntSort {
+        @Override
+        protected void sortRange(int[] arr, int from, int to) {
+            int[] scratch = new int[to - from];
+            sort(arr, scratch, from, to, from);
+        }
+
+        /**
+         * Sorts the range using the scratch array
+         *
+         * @param offset the index in the array that the start of the scratch array stands for
+         */
+        private static void sort(int[] arr, int[] scratch, int from, int to, int offset) {
+            if(to - from <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(arr, from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            sort(arr, scratch, from, mid, offset);
+            sort(arr, scratch, mid, to, offset);
+
+            if(arr[mid - 1] <= arr[mid])
+                return; //Already in order
+
+            System.arraycopy(arr, from, scratch, from - offset, mid - from);
+            int i = from - offset, leftEnd = mid - offset;
+            int j = mid, k = from;
+            while(i < leftEnd && j < to) {
+                arr[k++] = scratch[i] <= arr[j]? scratch[i++]: arr[j++];
+            }
+            System.arraycopy(scratch, i, arr, k, leftEnd - i); //The rest of the right half is already in place
+        }
+    }
+
+    private static class IntRadixSort extends IntSort {
+        @Override
+        protected void sortRange(int[] arr, int from, int to) {
+            int length = to - from;
+            int[] src = arr;
+            int srcOffset = from;
+            int[] dst = new int[length];
+            int dstOffset = 0;
+            int[] counts = new int[RADIX];
+
+            for(int shift = 0; shift < Integer.SIZE; shift += DIGIT_BITS) {
+                int flip = signFlip(shift, Integer.SIZE);
+                Arrays.fill(counts, 0);
+                for(int x = srcOffset, end = srcOffset + length; x < end; x++) {
+                    counts[((src[x] >>> shift) & DIGIT_MASK) ^ flip]++;
+                }
+                if(counts[((src[srcOffset] >>> shift) & DIGIT_MASK) ^ flip] == length)
+                    continue; //Every value has the same digit
+
+                countsToOffsets(counts, dstOffset);
+                for(int x = srcOffset, end = srcOffset + length; x < end; x++) {
+                    int value = src[x];
+                    dst[counts[((value >>> shift) & DIGIT_MASK) ^ flip]++] = value;
+                }
+
+                int[] temp = src; src = dst; dst = temp;
+                int tempOffset = srcOffset; srcOffset = dstOffset; dstOffset = tempOffset;
+            }
+
+            if(src != arr)
+                System.arraycopy(src, srcOffset, arr, from, length);
+        }
+    }
+}
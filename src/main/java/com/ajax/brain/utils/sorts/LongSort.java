@@ -0,0 +1,313 @@
+package com.ajax.brain.utils.sorts;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Sorts for arrays of {@code long}s, the same sorts as the {@code IntSort}s
+ * {@link KeySort} sorts objects with them by packing every key and the index of its object into one {@code long}
+ *
+ * The sorts are a deliberate copy of the {@code IntSort}s, generics don't work with primitives and sorting boxed values
+ * is what these avoid, only the parts that don't touch the values like the radix constants and the QuickSort depth limit are shared
+ *
+ * @see IntSort
+ */
+public abstract class LongSort {
+    /**
+     * Ranges this short are sorted with an insertion sort
+     */
+    static final int INSERTION_SORT_THRESHOLD = 24;
+
+    private static final LongSort QUICK_SORT = new LongQuickSort();
+    private static final LongSort MERGE_SORT = new LongMergeSort();
+    private static final LongSort RADIX_SORT = new LongRadixSort(0);
+    private static final LongSort HIGH_RADIX_SORT = new LongRadixSort(Integer.SIZE);
+
+    /**
+     * Sorts the array in ascending order
+     *
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
+     */
+    public final void sort(long[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts part of the array in ascending order
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     * @throws IndexOutOfBoundsException if the range is not in the array
+     */
+    public final void sort(long[] arr, int from, int to) {
+        Objects.checkFromToIndex(from, to, arr.length);
+        if(to - from > 1)
+            sortRange(arr, from, to);
+    }
+
+    /**
+     * Sorts a range of at least 2 values that is known to be in the array
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    protected abstract void sortRange(long[] arr, int from, int to);
+
+    /**
+     * Returns a QuickSort that picks the median of three values as the pivot
+     * A range that is still being split after 2 log n levels is sorted with a HeapSort so no input takes more than O(n log n) time
+     * It sorts in place but isn't stable, which makes no difference for plain values
+     *
+     * @return the shared {@code LongSort}
+     */
+    public static LongSort getQuickSort() {
+        return QUICK_SORT;
+    }
+
+    /**
+     * Returns a MergeSort that allocates one scratch array of the range's length for the whole sort
+     *
+     * @return the shared {@code LongSort}
+     */
+    public static LongSort getMergeSort() {
+        return MERGE_SORT;
+    }
+
+    /**
+     * Returns a least significant digit RadixSort with 8 bit digits
+     * It takes 8 passes over the values no matter how they are ordered, passes where every value has the same digit are skipped
+     *
+     * @return the shared {@code LongSort}
+     */
+    public static LongSort getRadixSort() {
+        return RADIX_SORT;
+    }
+
+    /**
+     * Returns a least significant digit RadixSort that only sorts by the high 32 bits of the values
+     * Values with the same high bits keep their order, {@link KeySort} packs the index of every object in the low bits
+     * in order already so the 4 passes over them would change nothing
+     *
+     * @return the shared {@code LongSort}
+     */
+    static LongSort getHighRadixSort() {
+        return HIGH_RADIX_SORT;
+    }
+
+    /**
+     * Sorts the range with an insertion sort
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    static void insertionSort(long[] arr, int from, int to) {
+        for(int i = from + 1; i < to; i++) {
+            long value = arr[i];
+            int j = i - 1;
+            while(j >= from && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+        }
+    }
+
+    /**
+     * Sorts the range with a HeapSort
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    static void heapSort(long[] arr, int from, int to) {
+        int n = to - from;
+
+        for(int x = n / 2 - 1; x >= 0; x--) {
+            siftDown(arr, from, x, n);
+        }
+
+        for(int end = n - 1; end > 0; end--) {
+            long temp = arr[from];
+            arr[from] = arr[from + end];
+            arr[from + end] = temp;
+
+            siftDown(arr, from, 0, end);
+        }
+    }
+
+    /**
+     * Moves the value at the index down the max heap until its children are smaller
+     *
+     * @param arr the array holding the heap
+     * @param offset the index of the root of the heap
+     * @param index the index in the heap of the value to move
+     * @param size the number of values in the heap
+     */
+    private static void siftDown(long[] arr, int offset, int index, int size) {
+        long value = arr[offset + index];
+
+        while(true) {
+            int child = 2 * index + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && arr[offset + child + 1] > arr[offset + child])
+                child++;
+            if(arr[offset + child] <= value)
+                break;
+
+            arr[offset + index] = arr[offset + child];
+            index = child;
+        }
+        arr[offset + index] = value;
+    }
+
+    private static class LongQuickSort extends LongSort {
+        @Override
+        protected void sortRange(long[] arr, int from, int to) {
+            sort(arr, from, to, QuickSort.depthLimit(to - from));
+        }
+
+        /**
+         * Sorts the range, a range that is still being split after 2 log n levels is heap sorted
+         *
+         * @param depth the number of times the range can still be split before it is heap sorted
+         */
+        private static void sort(long[] arr, int from, int to, int depth) {
+            while(to - from > INSERTION_SORT_THRESHOLD) {
+                if(depth-- == 0) {
+                    heapSort(arr, from, to);
+                    return;
+                }
+
+                int split = partition(arr, from, to);
+
+                //Recurse into the smaller side so the stack never gets deeper than log n
+                if(split - from < to - split) {
+                    sort(arr, from, split, depth);
+                    from = split;
+                } else {
+                    sort(arr, split, to, depth);
+                    to = split;
+                }
+            }
+            insertionSort(arr, from, to);
+        }
+
+        /**
+         * Hoare partition around the median of the first, middle and last values
+         * Values equal to the pivot end up on both sides so runs of equal values split evenly
+         *
+         * @return the index where the second part starts, both parts are not empty
+         */
+        private static int partition(long[] arr, int from, int to) {
+            int last = to - 1;
+            int mid = (from + last) >>> 1;
+            if(arr[mid] < arr[from]) swap(arr, mid, from);
+            if(arr[last] < arr[from]) swap(arr, last, from);
+            if(arr[last] < arr[mid]) swap(arr, last, mid);
+            long pivot = arr[mid];
+
+            int i = from - 1;
+            int j = to;
+            while(true) {
+                do i++; while(arr[i] < pivot);
+                do j--; while(arr[j] > pivot);
+                if(i >= j)
+                    return j + 1;
+                swap(arr, i, j);
+            }
+        }
+
+        private static void swap(long[] arr, int i, int j) {
+            long temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+
+    private static class LongMergeSort extends LongSort {
+        @Override
+        protected void sortRange(long[] arr, int from, int to) {
+            long[] scratch = new long[to - from];
+            sort(arr, scratch, from, to, from);
+        }
+
+        /**
+         * Sorts the range using the scratch array
+         *
+         * @param offset the index in the array that the start of the scratch array stands for
+         */
+        private static void sort(long[] arr, long[] scratch, int from, int to, int offset) {
+            if(to - from <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(arr, from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            sort(arr, scratch, from, mid, offset);
+            sort(arr, scratch, mid, to, offset);
+
+            if(arr[mid - 1] <= arr[mid])
+                return; //Already in order
+
+            System.arraycopy(arr, from, scratch, from - offset, mid - from);
+            int i = from - offset, leftEnd = mid - offset;
+            int j = mid, k = from;
+            while(i < leftEnd && j < to) {
+                arr[k++] = scratch[i] <= arr[j]? scratch[i++]: arr[j++];
+            }
+            System.arraycopy(scratch, i, arr, k, leftEnd - i); //The rest of the right half is already in place
+        }
+    }
+
+    private static class LongRadixSort extends LongSort {
+        /**
+         * The shift of the lowest digit that is sorted by, the digits below it are left in the order they are in
+         */
+        private final int firstShift;
+
+        private LongRadixSort(int firstShift) {
+            this.firstShift = firstShift;
+        }
+
+        @Override
+        protected void sortRange(long[] arr, int from, int to) {
+            int length = to - from;
+            long[] src = arr;
+            int srcOffset = from;
+            long[] dst = new long[length];
+            int dstOffset = 0;
+            int[] counts = new int[IntSort.RADIX];
+
+            for(int shift = firstShift; shift < Long.SIZE; shift += IntSort.DIGIT_BITS) {
+                int flip = IntSort.signFlip(shift, Long.SIZE);
+                Arrays.fill(counts, 0);
+                for(int x = srcOffset, end = srcOffset + length; x < end; x++) {
+                    counts[((int) (src[x] >>> shift) & IntSort.DIGIT_MASK) ^ flip]++;
+                }
+                if(counts[((int) (src[srcOffset] >>> shift) & IntSort.DIGIT_MASK) ^ flip] == length)
+                    continue; //Every value has the same digit
+
+                IntSort.countsToOffsets(counts, dstOffset);
+                for(int x = srcOffset, end = srcOffset + length; x < end; x++) {
+                    long value = src[x];
+                    dst[counts[((int) (value >>> shift) & IntSort.DIGIT_MASK) ^ flip]++] = value;
+                }
+
+                long[] temp = src; src = dst; dst = temp;
+                int tempOffset = srcOffset; srcOffset = dstOffset; dstOffset = tempOffset;
+            }
+
+            if(src != arr)
+                System.arraycopy(src, srcOffset, arr, from, length);
+        }
+    }
+}
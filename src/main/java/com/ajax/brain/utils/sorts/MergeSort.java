@@ -2,112 +2,158 @@ package com.ajax.brain.utils.sorts;
 
 import com.ajax.brain.utils.Generics;
 
-import java.lang.reflect.Array;
-
 /**
  * Implementation of a MergeSort algorithm
  *
- * Code <del>stolen</del> borrowed from <a href="https://www.geeksforgeeks.org/">https://www.geeksforgeeks.org/</a>
- * The page it was borrowed form is <a href="https://www.geeksforgeeks.org/merge-sort/">https://www.geeksforgeeks.org/merge-sort/</a>
+ * One scratch array as long as the array is allocated per sort, the values are merged back and forth between the array
+ * and the scratch array so nothing else is allocated or copied
+ * Ranges of up to {@value #INSERTION_SORT_THRESHOLD} values are sorted with an {@code InsertionSort} and halves that are
+ * already in order are copied instead of merged, so sorted input takes a linear number of comparisons but the values
+ * are still copied to the other array once per level, O(n log n) moves
+ * The bottom-up mode merges runs of doubling length in passes over the array instead of recursing
  *
- * MergeSorts should only be used if memory is not a problem
+ * The sort is stable, MergeSorts should only be used if memory is not a problem
+ * An instance holds no state while sorting so it can be shared between threads
  */
 public final class MergeSort<T> extends Sort<T>{
+    /**
+     * Ranges this short are sorted with an {@code InsertionSort}
+     */
+    static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Sorts the short ranges
+     */
+    private final InsertionSort<T> insertionSort;
+
+    /**
+     * Merges in passes instead of recursing
+     */
+    private final boolean bottomUp;
+
     /**
      * Creates a new {@code MergeSort} with the {@code Representor}
      *
      * @param representor the {@code Representor} for converting objects to integers
+     * @param bottomUp if the runs should be merged in passes instead of recursively
      * @throws NullPointerException if the representor is null
      */
-    private MergeSort(Representor<T> representor) {
+    private MergeSort(Representor<T> representor, boolean bottomUp) {
         super(representor);
+
+        this.insertionSort = InsertionSort.getInstance(representor);
+        this.bottomUp = bottomUp;
     }
 
     /**
      * Sorts the provided array with a MergeSort
      *
      * @param arr the array to sort
+     * @throws NullPointerException if the array is null
      */
     @Override
     public void sort(T[] arr) {
-        sort(arr, 0, arr.length-1);
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        if(arr.length <= INSERTION_SORT_THRESHOLD) {
+            insertionSort.sort(arr, 0, arr.length);
+        } else if(bottomUp) {
+            sortBottomUp(arr);
+        } else {
+            T[] scratch = arr.clone();
+            sort(scratch, arr, 0, arr.length);
+        }
     }
 
     /**
-     * Separates the array, sorts it, then merges it
+     * Sorts the range of the destination
+     * Both arrays have to hold the same values in the range, the halves are sorted into the source and merged into the destination
      *
-     * @param arr the array to sort
-     * @param l the left index
-     * @param m the middle index
-     * @param r the right index
+     * @param src the array the halves are sorted into
+     * @param dst the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
      */
-    private void merge(T[] arr, int l, int m, int r) {
-        // Find sizes of two sub-arrays to be merged
-        int n1 = m - l + 1;
-        int n2 = r - m;
-
-        /* Create temp arrays */
-        T[] L = Generics.newGenericArray(arr, n1);
-        T[] R = Generics.newGenericArray(arr, n2);
-
-        /*Copy data to temp arrays*/
-        if (n1 >= 0) System.arraycopy(arr, l, L, 0, n1);
-        for (int j = 0; j < n2; ++j)
-            R[j] = arr[m + 1 + j];
-
-        /* Merge the temp arrays */
-
-        // Initial indexes of first and second sub-arrays
-        int i = 0, j = 0;
-
-        // Initial index of merged sub-array array
-        int k = l;
-        while (i < n1 && j < n2) {
-            if (representor.convert(L[i]) <= representor.convert(R[j])) {
-                arr[k] = L[i];
-                i++;
-            }
-            else {
-                arr[k] = R[j];
-                j++;
-            }
-            k++;
+    private void sort(T[] src, T[] dst, int from, int to) {
+        if(to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort.sort(dst, from, to);
+            return;
         }
 
-        /* Copy remaining elements of L[] if any */
-        while (i < n1) {
-            arr[k] = L[i];
-            i++;
-            k++;
+        int mid = (from + to) >>> 1;
+        sort(dst, src, from, mid);
+        sort(dst, src, mid, to);
+        merge(src, from, mid, to, dst);
+    }
+
+    /**
+     * Sorts runs of {@value #INSERTION_SORT_THRESHOLD} values with an {@code InsertionSort} then merges pairs of runs
+     * in passes until one run is left, every pass merges from one array into the other
+     *
+     * @param arr the array to sort
+     */
+    private void sortBottomUp(T[] arr) {
+        int n = arr.length;
+        for(int from = 0; from < n; from += INSERTION_SORT_THRESHOLD) {
+            insertionSort.sort(arr, from, Math.min(from + INSERTION_SORT_THRESHOLD, n));
         }
 
-        /* Copy remaining elements of R[] if any */
-        while (j < n2) {
-            arr[k] = R[j];
-            j++;
-            k++;
+        T[] src = arr;
+        T[] dst = Generics.newGenericArray(arr, n);
+        for(int width = INSERTION_SORT_THRESHOLD; width < n; width *= 2) {
+            for(int from = 0; from < n; from += 2 * width) {
+                int mid = Math.min(from + width, n);
+                int to = Math.min(from + 2 * width, n);
+                merge(src, from, mid, to, dst);
+            }
+
+            T[] temp = src;
+            src = dst;
+            dst = temp;
         }
+
+        if(src != arr)
+            System.arraycopy(src, 0, arr, 0, n);
     }
 
     /**
-     * Sorts the provided array from left to right
+     * Merges two sorted runs that are next to each other into the same range of the destination
+     * The values of the first run go first when they are equal, runs that are already in order are just copied
      *
-     * @param arr the array to sort
-     * @param l the left index
-     * @param r the right index
+     * @param src the array holding the runs
+     * @param from the start of the first run
+     * @param mid the end of the first run and the start of the second run
+     * @param to the end of the second run
+     * @param dst the array to merge into
      */
-    private void sort(T[] arr, int l, int r) {
-        if (l < r) {
-            // Find the middle point
-            int m = (l + r) / 2;
-
-            // Sort first and second halves
-            sort(arr, l, m);
-            sort(arr, m + 1, r);
+    private void merge(T[] src, int from, int mid, int to, T[] dst) {
+        if(mid == to || representor.convert(src[mid - 1]) <= representor.convert(src[mid])) {
+            System.arraycopy(src, from, dst, from, to - from);
+            return;
+        }
 
-            // Merge the sorted halves
-            merge(arr, l, m, r);
+        int i = from, j = mid, k = from;
+        int leftKey = representor.convert(src[i]);
+        int rightKey = representor.convert(src[j]);
+
+        while(true) {
+            if(leftKey <= rightKey) {
+                dst[k++] = src[i++];
+                if(i == mid)
+                    break;
+                leftKey = representor.convert(src[i]);
+            } else {
+                dst[k++] = src[j++];
+                if(j == to)
+                    break;
+                rightKey = representor.convert(src[j]);
+            }
         }
+
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, to - j);
     }
 
     /**
@@ -118,7 +164,7 @@ public final class MergeSort<T> extends Sort<T>{
      * @param <T> the object type of the array
      */
     public static <T> void sort(T[] arr, Representor<T> representor) {
-        new MergeSort<T>(representor).sort(arr);
+        new MergeSort<T>(representor, false).sort(arr);
     }
 
     /**
@@ -128,6 +174,16 @@ public final class MergeSort<T> extends Sort<T>{
      * @param <T> the object type of the array
      */
     public static <T> MergeSort<T> getInstance(Representor<T> representor) {
-        return new MergeSort<>(representor);
+        return new MergeSort<>(representor, false);
+    }
+
+    /**
+     * Returns a new {@code MergeSort} object that merges in passes over the array instead of recursively
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> MergeSort<T> getBottomUpInstance(Representor<T> representor) {
+        return new MergeSort<>(representor, true);
     }
 }
@@ -0,0 +1,285 @@
+package com.ajax.brain.utils.sorts;
+
+import com.ajax.brain.utils.Generics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A MergeSort that sorts and merges the halves of large ranges in parallel on a {@code ForkJoinPool}
+ * Ranges smaller than the parallel threshold are sorted on the current thread and ranges of up to
+ * {@value #INSERTION_SORT_THRESHOLD} values are sorted with an {@code InsertionSort}
+ *
+ * One scratch array as long as the array is allocated per sort and shared by every task, the sort is stable
+ */
+public final class ParallelMergeSort<T> extends Sort<T> {
+    /**
+     * The parallel threshold used when none is given
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Ranges this short are sorted with an {@code InsertionSort}
+     */
+    static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * The pool the tasks run on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Ranges shorter than this are not split into tasks
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Sorts the short ranges
+     */
+    private final InsertionSort<T> insertionSort;
+
+    /**
+     * Creates a new {@code ParallelMergeSort} with the {@code Representor}
+     *
+     * @param representor the {@code Representor} for converting objects to integers
+     * @param pool the pool to run the tasks on
+     * @param parallelThreshold the shortest range that is split into tasks
+     * @throws NullPointerException if the representor or the pool is null
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    private ParallelMergeSort(Representor<T> representor, ForkJoinPool pool, int parallelThreshold) {
+        super(representor);
+
+        if(pool == null) {
+            throw new NullPointerException("Pool must not be null");
+        }
+        if(parallelThreshold < 2) {
+            throw new IllegalArgumentException("The parallel threshold must be at least 2");
+        }
+
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.insertionSort = InsertionSort.getInstance(representor);
+    }
+
+    /**
+     * Sorts the provided array with a parallel MergeSort
+     *
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
+     */
+    @Override
+    public void sort(T[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        T[] scratch = Generics.newGenericArray(arr, arr.length);
+        if(arr.length < parallelThreshold)
+            sort(arr, scratch, 0, arr.length);
+        else
+            pool.invoke(new SortTask(arr, scratch, 0, arr.length));
+    }
+
+    /**
+     * Sorts the range on the current thread
+     *
+     * @param arr the array to sort
+     * @param scratch the scratch array
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    private void sort(T[] arr, T[] scratch, int from, int to) {
+        if(to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort.sort(arr, from, to);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        sort(arr, scratch, from, mid);
+        sort(arr, scratch, mid, to);
+
+        if(representor.convert(arr[mid - 1]) <= representor.convert(arr[mid]))
+            return; //Already in order
+
+        System.arraycopy(arr, from, scratch, from, mid - from);
+        merge(scratch, from, mid, arr, mid, to, arr, from);
+    }
+
+    /**
+     * Merges two sorted runs into the destination, the values of the first run go first when they are equal
+     * The destination may be the array of the second run as long as the merged values end where the second run does
+     *
+     * @param left the array holding the first run
+     * @param leftFrom the start of the first run
+     * @param leftTo the end of the first run
+     * @param right the array holding the second run
+     * @param rightFrom the start of the second run
+     * @param rightTo the end of the second run
+     * @param dst the array to merge into
+     * @param dstFrom the index of the first merged value
+     */
+    private void merge(T[] left, int leftFrom, int leftTo, T[] right, int rightFrom, int rightTo, T[] dst, int dstFrom) {
+        int i = leftFrom, j = rightFrom, k = dstFrom;
+
+        if(i < leftTo && j < rightTo) {
+            int leftKey = representor.convert(left[i]);
+            int rightKey = representor.convert(right[j]);
+
+            while(true) {
+                if(leftKey <= rightKey) {
+                    dst[k++] = left[i++];
+                    if(i == leftTo)
+                        break;
+                    leftKey = representor.convert(left[i]);
+                } else {
+                    dst[k++] = right[j++];
+                    if(j == rightTo)
+                        break;
+                    rightKey = representor.convert(right[j]);
+                }
+            }
+        }
+
+        System.arraycopy(left, i, dst, k, leftTo - i);
+        k += leftTo - i;
+        if(right != dst || j != k)
+            System.arraycopy(right, j, dst, k, rightTo - j);
+    }
+
+    /**
+     * Returns the first index in the range whose key is not less than the key, or greater than the key if {@code after}
+     */
+    private int search(T[] arr, int from, int to, int key, boolean after) {
+        while(from < to) {
+            int mid = (from + to) >>> 1;
+            int midKey = representor.convert(arr[mid]);
+            if(midKey < key || (after && midKey == key))
+                from = mid + 1;
+            else
+                to = mid;
+        }
+        return from;
+    }
+
+    /**
+     * Sorts a range by sorting its halves in parallel then merging them in parallel
+     */
+    private final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] arr;
+        private final T[] scratch;
+        private final int from;
+        private final int to;
+
+        private SortTask(T[] arr, T[] scratch, int from, int to) {
+            this.arr = arr;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from < parallelThreshold) {
+                sort(arr, scratch, from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(arr, scratch, from, mid), new SortTask(arr, scratch, mid, to));
+
+            if(representor.convert(arr[mid - 1]) <= representor.convert(arr[mid]))
+                return; //Already in order
+
+            System.arraycopy(arr, from, scratch, from, to - from);
+            new MergeTask(scratch, from, mid, mid, to, arr, from).compute();
+        }
+    }
+
+    /**
+     * Merges two runs of the scratch array into the array by splitting both at the same key and merging the parts in parallel
+     */
+    private final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] src;
+        private final int leftFrom;
+        private final int leftTo;
+        private final int rightFrom;
+        private final int rightTo;
+        private final T[] dst;
+        private final int dstFrom;
+
+        private MergeTask(T[] src, int leftFrom, int leftTo, int rightFrom, int rightTo, T[] dst, int dstFrom) {
+            this.src = src;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+            this.dst = dst;
+            this.dstFrom = dstFrom;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftTo - leftFrom;
+            int rightLength = rightTo - rightFrom;
+            //The longer run needs at least 2 values so splitting it in the middle makes both tasks smaller
+            if(leftLength + rightLength < Math.max(parallelThreshold, INSERTION_SORT_THRESHOLD) || leftLength == 0 || rightLength == 0) {
+                merge(src, leftFrom, leftTo, src, rightFrom, rightTo, dst, dstFrom);
+                return;
+            }
+
+            //Split the longer run in the middle and the other one where the middle key would go
+            //Equal keys of the first run stay in front of the ones of the second run so the merge stays stable
+            int leftSplit, rightSplit;
+            if(leftLength >= rightLength) {
+                leftSplit = (leftFrom + leftTo) >>> 1;
+                rightSplit = search(src, rightFrom, rightTo, representor.convert(src[leftSplit]), false);
+            } else {
+                rightSplit = (rightFrom + rightTo) >>> 1;
+                leftSplit = search(src, leftFrom, leftTo, representor.convert(src[rightSplit]), true);
+            }
+
+            int dstSplit = dstFrom + (leftSplit - leftFrom) + (rightSplit - rightFrom);
+            invokeAll(new MergeTask(src, leftFrom, leftSplit, rightFrom, rightSplit, dst, dstFrom),
+                    new MergeTask(src, leftSplit, leftTo, rightSplit, rightTo, dst, dstSplit));
+        }
+    }
+
+    /**
+     * Sorts the provided array on the common pool by constructing a new {@code ParallelMergeSort} object then using it
+     *
+     * @param arr the array to sort
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> void sort(T[] arr, Representor<T> representor) {
+        new ParallelMergeSort<T>(representor, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD).sort(arr);
+    }
+
+    /**
+     * Returns a new {@code ParallelMergeSort} object that runs on the common pool
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> ParallelMergeSort<T> getInstance(Representor<T> representor) {
+        return new ParallelMergeSort<>(representor, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns a new {@code ParallelMergeSort} object to be used multiple times
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param pool the pool to run the tasks on
+     * @param parallelThreshold the shortest range that is split into tasks
+     * @param <T> the object type of the array
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    public static <T> ParallelMergeSort<T> getInstance(Representor<T> representor, ForkJoinPool pool, int parallelThreshold) {
+        return new ParallelMergeSort<>(representor, pool, parallelThreshold);
+    }
+}
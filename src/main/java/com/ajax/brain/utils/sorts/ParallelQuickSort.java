@@ -0,0 +1,158 @@
+package com.ajax.brain.utils.sorts;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A QuickSort that sorts the two parts of large partitions in parallel on a {@code ForkJoinPool}
+ * Partitions smaller than the parallel threshold are sorted on the current thread with a {@code QuickSort}
+ *
+ * The partitions are the same as the {@code QuickSort}'s, a ninther pivot and a three way split, and they share its
+ * depth limit, a range that is still being split after 2 log n levels is sorted with a {@code HeapSort} so no input takes
+ * more than O(n log n) time
+ *
+ * The sort is in place and not stable
+ */
+public final class ParallelQuickSort<T> extends Sort<T> {
+    /**
+     * The parallel threshold used when none is given
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * The pool the tasks run on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Partitions shorter than this are not split into tasks
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Partitions the ranges and sorts the short ones
+     */
+    private final QuickSort<T> quickSort;
+
+    /**
+     * Sorts the ranges that split badly too many times
+     */
+    private final HeapSort<T> heapSort;
+
+    /**
+     * Creates a new {@code ParallelQuickSort} with the {@code Representor}
+     *
+     * @param representor the {@code Representor} for converting objects to integers
+     * @param pool the pool to run the tasks on
+     * @param parallelThreshold the shortest partition that is split into tasks
+     * @throws NullPointerException if the representor or the pool is null
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    private ParallelQuickSort(Representor<T> representor, ForkJoinPool pool, int parallelThreshold) {
+        super(representor);
+
+        if(pool == null) {
+            throw new NullPointerException("Pool must not be null");
+        }
+        if(parallelThreshold < 2) {
+            throw new IllegalArgumentException("The parallel threshold must be at least 2");
+        }
+
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.quickSort = QuickSort.getInstance(representor);
+        this.heapSort = HeapSort.getInstance(representor);
+    }
+
+    /**
+     * Sorts the provided array with a parallel QuickSort
+     *
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
+     */
+    @Override
+    public void sort(T[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        if(arr.length < parallelThreshold)
+            quickSort.sort(arr, 0, arr.length);
+        else
+            pool.invoke(new SortTask(arr, 0, arr.length, QuickSort.depthLimit(arr.length)));
+    }
+
+    /**
+     * Partitions a range then sorts both parts in parallel
+     */
+    private final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] arr;
+        private final int from;
+        private final int to;
+
+        /**
+         * The number of times the range can still be split before it is heap sorted
+         */
+        private final int depth;
+
+        private SortTask(T[] arr, int from, int to, int depth) {
+            this.arr = arr;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from < parallelThreshold) {
+                quickSort.sort(arr, from, to, depth);
+                return;
+            }
+            if(depth == 0) {
+                heapSort.sort(arr, from, to);
+                return;
+            }
+
+            long bounds = quickSort.partition(arr, from, to);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+            invokeAll(new SortTask(arr, from, lt, depth - 1), new SortTask(arr, gt, to, depth - 1));
+        }
+    }
+
+    /**
+     * Sorts the provided array on the common pool by constructing a new {@code ParallelQuickSort} object then using it
+     *
+     * @param arr the array to sort
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> void sort(T[] arr, Representor<T> representor) {
+        new ParallelQuickSort<T>(representor, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD).sort(arr);
+    }
+
+    /**
+     * Returns a new {@code ParallelQuickSort} object that runs on the common pool
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> ParallelQuickSort<T> getInstance(Representor<T> representor) {
+        return new ParallelQuickSort<>(representor, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns a new {@code ParallelQuickSort} object to be used multiple times
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param pool the pool to run the tasks on
+     * @param parallelThreshold the shortest partition that is split into tasks
+     * @param <T> the object type of the array
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    public static <T> ParallelQuickSort<T> getInstance(Representor<T> representor, ForkJoinPool pool, int parallelThreshold) {
+        return new ParallelQuickSort<>(representor, pool, parallelThreshold);
+    }
+}
@@ -0,0 +1,259 @@
+package com.ajax.brain.utils.sorts;
+
+import com.ajax.brain.utils.Generics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The {@code RadixSort} split over the threads of a {@code ForkJoinPool}
+ *
+ * The array is split into one block per thread, every pass counts the digits of each block in parallel, turns the counts
+ * into the index every block starts writing each digit at and then moves every block in parallel
+ * The blocks write their keys in order and each one writes after the blocks before it so the sort stays stable
+ * Arrays shorter than the parallel threshold are sorted with a {@code RadixSort} on the current thread
+ *
+ * The {@code Representor} is called from many threads at once
+ */
+public final class ParallelRadixSort<T> extends Sort<T> {
+    /**
+     * The parallel threshold used when none is given
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * No block is made shorter than this
+     */
+    private static final int MIN_BLOCK_SIZE = 1 << 12;
+
+    /**
+     * The pool the blocks are sorted on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Arrays shorter than this are sorted on the current thread
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Sorts the short arrays
+     */
+    private final RadixSort<T> radixSort;
+
+    /**
+     * Creates a new {@code ParallelRadixSort} with the {@code Representor}
+     *
+     * @param representor the {@code Representor} for converting objects to integers
+     * @param pool the pool to sort on
+     * @param parallelThreshold the shortest array that is sorted in parallel
+     * @throws NullPointerException if the representor or the pool is null
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    private ParallelRadixSort(Representor<T> representor, ForkJoinPool pool, int parallelThreshold) {
+        super(representor);
+
+        if(pool == null) {
+            throw new NullPointerException("Pool must not be null");
+        }
+        if(parallelThreshold < 2) {
+            throw new IllegalArgumentException("The parallel threshold must be at least 2");
+        }
+
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.radixSort = RadixSort.getInstance(representor);
+    }
+
+    /**
+     * Sorts the provided array with a parallel RadixSort
+     *
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
+     */
+    @Override
+    public void sort(T[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        int n = arr.length;
+        if(n < parallelThreshold) {
+            radixSort.sort(arr);
+            return;
+        }
+
+        int blocks = Math.max(1, Math.min(pool.getParallelism(), n / MIN_BLOCK_SIZE));
+        int[] starts = new int[blocks + 1];
+        for(int block = 0; block <= blocks; block++) {
+            starts[block] = (int) ((long) n * block / blocks);
+        }
+
+        int[] keys = new int[n];
+        forEachBlock(blocks, block -> {
+            for(int x = starts[block]; x < starts[block + 1]; x++) {
+                keys[x] = representor.convert(arr[x]);
+            }
+        });
+
+        int[][] counts = new int[blocks][IntSort.RADIX];
+        Buffers<T> buffers = new Buffers<>(keys, new int[n], arr, Generics.newGenericArray(arr, n));
+
+        for(int shift = 0; shift < Integer.SIZE; shift += IntSort.DIGIT_BITS) {
+            int pass = shift;
+            int flip = IntSort.signFlip(shift, Integer.SIZE);
+            int[] src = buffers.keys;
+
+            forEachBlock(blocks, block -> {
+                int[] count = counts[block];
+                Arrays.fill(count, 0);
+                for(int x = starts[block]; x < starts[block + 1]; x++) {
+                    count[((src[x] >>> pass) & IntSort.DIGIT_MASK) ^ flip]++;
+                }
+            });
+
+            int first = ((src[0] >>> shift) & IntSort.DIGIT_MASK) ^ flip;
+            int sameDigit = 0;
+            for(int[] count: counts) {
+                sameDigit += count[first];
+            }
+            if(sameDigit == n)
+                continue; //Every key has the same digit
+
+            //Each block writes a digit after the keys with smaller digits and after the blocks before it with the same digit
+            for(int digit = 0, total = 0; digit < IntSort.RADIX; digit++) {
+                for(int[] count: counts) {
+                    int blockCount = count[digit];
+                    count[digit] = total;
+                    total += blockCount;
+                }
+            }
+
+            int[] dstKeys = buffers.keyBuffer;
+            T[] srcValues = buffers.values;
+            T[] dstValues = buffers.valueBuffer;
+            forEachBlock(blocks, block -> {
+                int[] next = counts[block];
+                for(int x = starts[block]; x < starts[block + 1]; x++) {
+                    int key = src[x];
+                    int index = next[((key >>> pass) & IntSort.DIGIT_MASK) ^ flip]++;
+                    dstKeys[index] = key;
+                    dstValues[index] = srcValues[x];
+                }
+            });
+
+            buffers.swap();
+        }
+
+        if(buffers.values != arr) {
+            T[] sorted = buffers.values;
+            forEachBlock(blocks, block -> System.arraycopy(sorted, starts[block], arr, starts[block], starts[block + 1] - starts[block]));
+        }
+    }
+
+    /**
+     * Runs the action for every block in parallel and waits for all of them
+     *
+     * @param blocks the number of blocks
+     * @param action run with the index of every block
+     */
+    private void forEachBlock(int blocks, IntConsumer action) {
+        if(blocks == 1)
+            action.accept(0);
+        else
+            pool.invoke(new BlockTask(action, 0, blocks));
+    }
+
+    /**
+     * The arrays the keys and objects are moved between
+     */
+    private static final class Buffers<T> {
+        private int[] keys;
+        private int[] keyBuffer;
+        private T[] values;
+        private T[] valueBuffer;
+
+        private Buffers(int[] keys, int[] keyBuffer, T[] values, T[] valueBuffer) {
+            this.keys = keys;
+            this.keyBuffer = keyBuffer;
+            this.values = values;
+            this.valueBuffer = valueBuffer;
+        }
+
+        /**
+         * Makes the buffers that were just written to the source of the next pass
+         */
+        private void swap() {
+            int[] tempKeys = keys;
+            keys = keyBuffer;
+            keyBuffer = tempKeys;
+            T[] tempValues = values;
+            values = valueBuffer;
+            valueBuffer = tempValues;
+        }
+    }
+
+    /**
+     * Runs an action for a range of blocks by splitting the range in half until there is one block per task
+     */
+    private static final class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer action;
+        private final int from;
+        private final int to;
+
+        private BlockTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                action.accept(from);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new BlockTask(action, from, mid), new BlockTask(action, mid, to));
+        }
+    }
+
+    /**
+     * Sorts the provided array on the common pool by constructing a new {@code ParallelRadixSort} object then using it
+     *
+     * @param arr the array to sort
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> void sort(T[] arr, Representor<T> representor) {
+        new ParallelRadixSort<T>(representor, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD).sort(arr);
+    }
+
+    /**
+     * Returns a new {@code ParallelRadixSort} object that runs on the common pool
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> ParallelRadixSort<T> getInstance(Representor<T> representor) {
+        return new ParallelRadixSort<>(representor, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns a new {@code ParallelRadixSort} object to be used multiple times
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param pool the pool to sort on
+     * @param parallelThreshold the shortest array that is sorted in parallel
+     * @param <T> the object type of the array
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    public static <T> ParallelRadixSort<T> getInstance(Representor<T> representor, ForkJoinPool pool, int parallelThreshold) {
+        return new ParallelRadixSort<>(representor, pool, parallelThreshold);
+    }
+}
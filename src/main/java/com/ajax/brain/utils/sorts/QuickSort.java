@@ -1,14 +1,39 @@
 package com.ajax.brain.utils.sorts;
 
 /**
- * Implementation of a QuickSort algorithm
+ * Implementation of a QuickSort algorithm, an introsort
  *
- * Code <del>stolen</del> borrowed from <a href="https://www.geeksforgeeks.org/">https://www.geeksforgeeks.org/</a>
- * The page it was borrowed form is <a href="https://www.geeksforgeeks.org/quick-sort/">https://www.geeksforgeeks.org/quick-sort/</a>
+ * The pivot is the median of three values, or for large ranges the median of three medians of three (Tukey's ninther),
+ * so sorted and reversed arrays split evenly
+ * Every partition is split three ways into the values less than, equal to and greater than the pivot, values equal to the
+ * pivot are done after one pass so arrays with few distinct values, like matchers that share priorities, sort in linear time
+ * Ranges of up to {@value #INSERTION_SORT_THRESHOLD} values are sorted with an {@code InsertionSort} and a range that
+ * is still being split after 2 log n levels is sorted with a {@code HeapSort}, so no input takes more than O(n log n) time
+ * or more than O(log n) stack
  *
- * QuickSorts should be used for smaller data-sets not gigantic ones
+ * The sort is in place and not stable
  */
 public final class QuickSort<T> extends Sort<T>{
+    /**
+     * Ranges this short are sorted with an {@code InsertionSort}
+     */
+    static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Ranges longer than this pick the pivot with a ninther instead of a median of three
+     */
+    private static final int NINTHER_THRESHOLD = 128;
+
+    /**
+     * Sorts the short ranges
+     */
+    private final InsertionSort<T> insertionSort;
+
+    /**
+     * Sorts the ranges that split badly too many times
+     */
+    private final HeapSort<T> heapSort;
+
     /**
      * Creates a new {@code QuickSort} object with the {@code Representor}
      * @param representor the {@code Representor} for the objects
@@ -16,58 +41,122 @@ public final class QuickSort<T> extends Sort<T>{
      */
     private QuickSort(Representor<T> representor) {
         super(representor);
+
+        this.insertionSort = InsertionSort.getInstance(representor);
+        this.heapSort = HeapSort.getInstance(representor);
     }
 
     /**
-     * Sorts from the low to the high based on the pivot
+     * Returns the key of the pivot for the range
      *
      * @param arr the array of values
-     * @param low the low index
-     * @param high the high index
-     * @return the partitioning index
+     * @param from the first index of the range
+     * @param to the index after the last one of the range
+     * @return the key to partition around
      */
-    private int partition(T[] arr, int low, int high) {
-        int pivot = representor.convert(arr[high]);
-        int i = (low-1); // index of smaller element
-        for (int j=low; j<high; j++) {
-            // If current element is smaller than the pivot
-            if (representor.convert(arr[j]) < pivot)
-            {
-                i++;
+    private int pivot(T[] arr, int from, int to) {
+        int last = to - 1;
+        int mid = (from + last) >>> 1;
+        if(to - from <= NINTHER_THRESHOLD)
+            return median(arr, from, mid, last);
 
-                // swap arr[i] and arr[j]
-                T temp = arr[i];
-                arr[i] = arr[j];
-                arr[j] = temp;
-            }
+        int step = (to - from) / 8;
+        return median(median(arr, from, from + step, from + 2 * step),
+                median(arr, mid - step, mid, mid + step),
+                median(arr, last - 2 * step, last - step, last));
+    }
+
+    /**
+     * Returns the median of the keys of the values at the indexes
+     */
+    private int median(T[] arr, int a, int b, int c) {
+        return median(representor.convert(arr[a]), representor.convert(arr[b]), representor.convert(arr[c]));
+    }
+
+    /**
+     * Returns the median of the keys
+     */
+    private static int median(int a, int b, int c) {
+        if(a > b) {
+            int temp = a;
+            a = b;
+            b = temp;
         }
+        return c <= a? a: Math.min(b, c);
+    }
 
-        // swap arr[i+1] and arr[high] (or pivot)
-        T temp = arr[i+1];
-        arr[i+1] = arr[high];
-        arr[high] = temp;
+    /**
+     * Sorts the range, only the smaller side of every partition is sorted recursively
+     *
+     * @param arr the array of values
+     * @param from the first index of the range
+     * @param to the index after the last one of the range
+     * @param depth the number of times the range can still be split before it is heap sorted
+     */
+    void sort(T[] arr, int from, int to, int depth) {
+        while(to - from > INSERTION_SORT_THRESHOLD) {
+            if(depth-- == 0) {
+                heapSort.sort(arr, from, to);
+                return;
+            }
+
+            long bounds = partition(arr, from, to);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+
+            if(lt - from < to - gt) {
+                sort(arr, from, lt, depth);
+                from = gt;
+            } else {
+                sort(arr, gt, to, depth);
+                to = lt;
+            }
+        }
 
-        return i+1;
+        insertionSort.sort(arr, from, to);
     }
 
     /**
-     * Partitions the array to sort it
+     * Splits the range three ways into the values less than, equal to and greater than the pivot
      *
      * @param arr the array of values
-     * @param low the low of the array
-     * @param high the high of the array
+     * @param from the first index of the range
+     * @param to the index after the last one of the range, the range can't be empty
+     * @return the start of the values equal to the pivot in the high 32 bits and the start of the values greater than it
+     * in the low 32 bits
      */
-    private void sort(T[] arr, int low, int high) {
-        if (low < high) {
-            /* pi is partitioning index, arr[pi] is
-              now at right place */
-            int pi = partition(arr, low, high);
-
-            // Recursively sort elements before
-            // partition and after partition
-            sort(arr, low, pi-1);
-            sort(arr, pi+1, high);
+    long partition(T[] arr, int from, int to) {
+        int pivot = pivot(arr, from, to);
+
+        //[from, lt) is less than the pivot, [lt, i) is equal to it and [gt, to) is greater than it
+        int lt = from, i = from, gt = to;
+        while(i < gt) {
+            int key = representor.convert(arr[i]);
+            if(key < pivot)
+                swap(arr, lt++, i++);
+            else if(key > pivot)
+                swap(arr, i, --gt);
+            else
+                i++;
         }
+
+        return (long) lt << 32 | gt;
+    }
+
+    /**
+     * Returns how many times a range can be split before it is heap sorted
+     *
+     * @param n the length of the range
+     * @return 2 log n
+     */
+    static int depthLimit(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(n));
+    }
+
+    private static <T> void swap(T[] arr, int i, int j) {
+        T temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
     }
 
     /**
@@ -82,7 +171,20 @@ public final class QuickSort<T> extends Sort<T>{
             throw new NullPointerException("The array can not be null");
         }
 
-        sort(arr, 0, arr.length-1);
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts part of the given array using a QuickSort
+     *
+     * @param arr the array to sort
+     * @param from the first index to sort
+     * @param to the index after the last one to sort
+     */
+    public void sort(T[] arr, int from, int to) {
+        int n = to - from;
+        if(n > 1)
+            sort(arr, from, to, depthLimit(n));
     }
 
     /**
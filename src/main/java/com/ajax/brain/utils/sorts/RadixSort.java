@@ -2,11 +2,18 @@ package com.ajax.brain.utils.sorts;
 
 import com.ajax.brain.utils.Generics;
 
+import java.util.Arrays;
+
 /**
- * Implementation of a RadixSort algorithm
+ * Implementation of a least significant digit RadixSort algorithm with 8 bit digits
+ *
+ * The keys are converted once into an {@code int[]} and sorted in at most 4 passes, one per byte of the key, so the sort
+ * takes linear time no matter how the keys are ordered
+ * The sign bit of the key is flipped in the last pass so negative keys sort before positive ones, and passes where every
+ * key has the same byte are skipped, small keys like priorities only take one or two passes
  *
- * Code <del>stolen</del> borrowed from <a href="https://www.geeksforgeeks.org/">https://www.geeksforgeeks.org/</a>
- * The page it was borrowed form is <a href="https://www.geeksforgeeks.org/radix-sort/">https://www.geeksforgeeks.org/radix-sort/</a>
+ * Every pass moves the keys and objects from one array into the other, one buffer for each is allocated per sort
+ * The sort is stable
  */
 public final class RadixSort<T> extends Sort<T>{
     /**
@@ -20,60 +27,77 @@ public final class RadixSort<T> extends Sort<T>{
     }
 
     /**
-     * RadixSort utility method
+     * Sorts the provided array with a RadixSort
      *
-     * Returns the largest value from the array
-     * @param arr the array that is being sorted
-     * @return the largest value in the array
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
      */
-    private int getMax(T[] arr) {
-        int mx = representor.convert(arr[0]);
-        for (int i = 1; i < arr.length; i++) {
-            int val = representor.convert(arr[i]);
-            if (val > mx) {
-                mx = val;
-            }
+    @Override
+    public void sort(T[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
         }
-        return mx;
-    }
 
-    /**
-     * RadixSort utility method
-     * Does the actual sorting
-     *
-     * @param arr the array to sort
-     * @param exp the current exponent 10^exp
-     */
-    private void countSort(T[] arr, int exp) {
-        T[] output = Generics.newGenericArray(arr, arr.length);
-        int[] count = new int[10];
+        int n = arr.length;
+        if(n < 2)
+            return;
 
-        for (T t : arr)
-            count[(representor.convert(t) / exp) % 10]++;
+        int[] keys = new int[n];
+        for(int x = 0; x < n; x++) {
+            keys[x] = representor.convert(arr[x]);
+        }
+
+        T[] values = arr;
+        int[] keyBuffer = new int[n];
+        T[] valueBuffer = null;
+        int[] counts = new int[IntSort.RADIX];
+
+        for(int shift = 0; shift < Integer.SIZE; shift += IntSort.DIGIT_BITS) {
+            int flip = IntSort.signFlip(shift, Integer.SIZE);
+            if(!countDigits(keys, shift, flip, counts))
+                continue;
 
-        for (int i = 1; i < 10; i++)
-            count[i] += count[i-1];
+            if(valueBuffer == null)
+                valueBuffer = Generics.newGenericArray(arr, n);
 
-        for (int i = arr.length - 1; i >= 0; i--) {
-            output[count[(representor.convert(arr[i])/exp)%10] - 1] = arr[i];
-            count[(representor.convert(arr[i])/exp)%10]--;
+            for(int x = 0; x < n; x++) {
+                int key = keys[x];
+                int index = counts[((key >>> shift) & IntSort.DIGIT_MASK) ^ flip]++;
+                keyBuffer[index] = key;
+                valueBuffer[index] = values[x];
+            }
+
+            int[] tempKeys = keys;
+            keys = keyBuffer;
+            keyBuffer = tempKeys;
+            T[] tempValues = values;
+            values = valueBuffer;
+            valueBuffer = tempValues;
         }
 
-        System.arraycopy(output, 0, arr, 0, arr.length);
+        if(values != arr)
+            System.arraycopy(values, 0, arr, 0, n);
     }
 
     /**
-     * Sorts the provided array with a RadixSort
+     * Counts how many keys have every value of the digit and turns the counts into the index of the first key with each value
      *
-     * @param arr the array to sort
+     * @param keys the keys
+     * @param shift where the digit is in the key
+     * @param flip xored with the digit
+     * @param counts where to put the indexes
+     * @return {@code false} if every key has the same digit so the pass can be skipped
      */
-    @Override
-    public void sort(T[] arr) {
-        int m = getMax(arr);
-
-        for (int exp = 1; m/exp > 0; exp *= 10) {
-            countSort(arr, exp);
+    private static boolean countDigits(int[] keys, int shift, int flip, int[] counts) {
+        Arrays.fill(counts, 0);
+        for(int key: keys) {
+            counts[((key >>> shift) & IntSort.DIGIT_MASK) ^ flip]++;
         }
+        if(counts[((keys[0] >>> shift) & IntSort.DIGIT_MASK) ^ flip] == keys.length)
+            return false;
+
+        IntSort.countsToOffsets(counts, 0);
+        return true;
     }
 
     /**
@@ -0,0 +1,665 @@
+package com.ajax.brain.utils.sorts;
+
+import com.ajax.brain.utils.Generics;
+
+/**
+ * Implementation of an adaptive RunSort algorithm, the same algorithm as TimSort
+ *
+ * The array is split into runs that are already in order, descending runs are reversed and runs shorter than the
+ * minimum run length are extended with a binary {@code InsertionSort}
+ * The runs are kept on a stack and merged while the lengths on the stack break the TimSort rules so the merges stay
+ * balanced, and a merge switches to galloping, searching for where the next value goes instead of comparing one value at
+ * a time, while one run keeps winning
+ * Sorted, reversed and nearly sorted arrays are sorted in close to linear time and every array in O(n log n) time
+ *
+ * The keys are converted once into an {@code int[]} that is sorted together with the objects
+ * The sort is stable
+ * An instance holds no state while sorting so it can be shared between threads
+ */
+public final class RunSort<T> extends Sort<T> {
+    /**
+     * Arrays shorter than this are sorted with a binary {@code InsertionSort}, runs are never made shorter than half of it
+     */
+    static final int MIN_MERGE = 32;
+
+    /**
+     * The number of values one run has to win in a row before a merge starts galloping
+     */
+    static final int MIN_GALLOP = 7;
+
+    /**
+     * More runs than can be on the stack, the length of each run is more than the two above it combined
+     */
+    private static final int MAX_RUNS = 49;
+
+    /**
+     * Creates a new {@code RunSort} with the {@code Representor}
+     *
+     * @param representor the {@code Representor} for converting objects to integers
+     * @throws NullPointerException if the representor is null
+     */
+    private RunSort(Representor<T> representor) {
+        super(representor);
+    }
+
+    /**
+     * Sorts the provided array with a RunSort
+     *
+     * @param arr the array to sort
+     * @throws NullPointerException if the array is null
+     */
+    @Override
+    public void sort(T[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
+
+        int n = arr.length;
+        if(n < 2)
+            return;
+
+        int[] keys = new int[n];
+        for(int x = 0; x < n; x++) {
+            keys[x] = representor.convert(arr[x]);
+        }
+
+        new Runs<>(keys, arr).sort();
+    }
+
+    /**
+     * Returns the shortest length a run is extended to
+     * The result is between {@value #MIN_MERGE} / 2 and {@value #MIN_MERGE} and the length divided by it is a power of two
+     * or a bit less, so the last merges are between runs of about the same length
+     *
+     * @param n the length of the array
+     * @return the minimum run length
+     */
+    static int minRunLength(int n) {
+        int rest = 0;
+        while(n >= MIN_MERGE) {
+            rest |= n & 1;
+            n >>= 1;
+        }
+        return n + rest;
+    }
+
+    /**
+     * The runs of one sort and the buffers they are merged with
+     */
+    private static final class Runs<T> {
+        private final int[] keys;
+        private final T[] values;
+
+        /**
+         * Holds the shorter run of a merge
+         */
+        private int[] tmpKeys;
+        private T[] tmpValues;
+
+        /**
+         * Goes down while galloping works and up while it doesn't
+         */
+        private int minGallop = MIN_GALLOP;
+
+        /**
+         * The start and length of every run that isn't merged yet
+         */
+        private final int[] runBase = new int[MAX_RUNS];
+        private final int[] runLength = new int[MAX_RUNS];
+        private int runCount;
+
+        private Runs(int[] keys, T[] values) {
+            this.keys = keys;
+            this.values = values;
+            this.tmpKeys = new int[0];
+            this.tmpValues = Generics.newGenericArray(values, 0);
+        }
+
+        /**
+         * Finds the runs from left to right, merging them as it goes, then merges whatever is left
+         */
+        private void sort() {
+            int n = keys.length;
+            if(n < MIN_MERGE) {
+                binaryInsertionSort(0, n, countRun(0, n));
+                return;
+            }
+
+            int minRun = minRunLength(n);
+            int from = 0;
+            while(from < n) {
+                int length = countRun(from, n);
+                if(length < minRun) {
+                    int extended = Math.min(minRun, n - from);
+                    binaryInsertionSort(from, from + extended, from + length);
+                    length = extended;
+                }
+
+                runBase[runCount] = from;
+                runLength[runCount] = length;
+                runCount++;
+                mergeCollapse();
+
+                from += length;
+            }
+
+            while(runCount > 1) {
+                int at = runCount - 2;
+                if(at > 0 && runLength[at - 1] < runLength[at + 1])
+                    at--;
+                mergeAt(at);
+            }
+        }
+
+        /**
+         * Returns the length of the run that starts at the index and reverses it if it is descending
+         * Only strictly descending runs are reversed so equal values keep their order
+         *
+         * @param from the start of the run
+         * @param to the end of the array
+         * @return the length of the run
+         */
+        private int countRun(int from, int to) {
+            int end = from + 1;
+            if(end == to)
+                return 1;
+
+            if(keys[end++] < keys[from]) {
+                while(end < to && keys[end] < keys[end - 1]) {
+                    end++;
+                }
+                reverse(from, end);
+            } else {
+                while(end < to && keys[end] >= keys[end - 1]) {
+                    end++;
+                }
+            }
+            return end - from;
+        }
+
+        /**
+         * Reverses the range
+         *
+         * @param from the first index to reverse
+         * @param to the index after the last one to reverse
+         */
+        private void reverse(int from, int to) {
+            for(int x = from, y = to - 1; x < y; x++, y--) {
+                int key = keys[x];
+                keys[x] = keys[y];
+                keys[y] = key;
+                T value = values[x];
+                values[x] = values[y];
+                values[y] = value;
+            }
+        }
+
+        /**
+         * Sorts the range with an {@code InsertionSort} that finds where each value goes with a binary search
+         *
+         * @param from the first index to sort
+         * @param to the index after the last one to sort
+         * @param sorted the index after the values at the start of the range that are already sorted
+         */
+        private void binaryInsertionSort(int from, int to, int sorted) {
+            for(int x = Math.max(sorted, from + 1); x < to; x++) {
+                int key = keys[x];
+                T value = values[x];
+
+                //Equal keys go after the ones already placed
+                int left = from;
+                int right = x;
+                while(left < right) {
+                    int mid = (left + right) >>> 1;
+                    if(key < keys[mid])
+                        right = mid;
+                    else
+                        left = mid + 1;
+                }
+
+                System.arraycopy(keys, left, keys, left + 1, x - left);
+                System.arraycopy(values, left, values, left + 1, x - left);
+                keys[left] = key;
+                values[left] = value;
+            }
+        }
+
+        /**
+         * Merges runs at the top of the stack until every run is longer than the two above it combined
+         * and longer than the one above it
+         */
+        private void mergeCollapse() {
+            while(runCount > 1) {
+                int at = runCount - 2;
+                if((at > 0 && runLength[at - 1] <= runLength[at] + runLength[at + 1])
+                        || (at > 1 && runLength[at - 2] <= runLength[at - 1] + runLength[at])) {
+                    if(runLength[at - 1] < runLength[at + 1])
+                        at--;
+                } else if(runLength[at] > runLength[at + 1]) {
+                    break;
+                }
+                mergeAt(at);
+            }
+        }
+
+        /**
+         * Merges the run at the index of the stack with the one after it
+         * The values of the first run that are already before the second run and the values of the second run that are
+         * already after the first run are found by galloping and left where they are
+         *
+         * @param at the index of the first run on the stack
+         */
+        private void mergeAt(int at) {
+            int base1 = runBase[at];
+            int length1 = runLength[at];
+            int base2 = runBase[at + 1];
+            int length2 = runLength[at + 1];
+
+            runLength[at] = length1 + length2;
+            if(at == runCount - 3) {
+                runBase[at + 1] = runBase[at + 2];
+                runLength[at + 1] = runLength[at + 2];
+            }
+            runCount--;
+
+            int skip = gallopRight(keys[base2], keys, base1, length1, 0);
+            base1 += skip;
+            length1 -= skip;
+            if(length1 == 0)
+                return;
+
+            length2 = gallopLeft(keys[base1 + length1 - 1], keys, base2, length2, length2 - 1);
+            if(length2 == 0)
+                return;
+
+            if(length1 <= length2)
+                mergeLow(base1, length1, base2, length2);
+            else
+                mergeHigh(base1, length1, base2, length2);
+        }
+
+        /**
+         * Merges two runs that are next to each other from the front, the first run is copied out so it has to be the
+         * shorter one
+         * The first value of the second run goes before the first run and the last value of the first run goes after
+         * the second run
+         *
+         * @param base1 the start of the first run
+         * @param length1 the length of the first run
+         * @param base2 the start of the second run
+         * @param length2 the length of the second run
+         */
+        private void mergeLow(int base1, int length1, int base2, int length2) {
+            int[] keys = this.keys;
+            T[] values = this.values;
+            ensureCapacity(length1);
+            int[] tmpKeys = this.tmpKeys;
+            T[] tmpValues = this.tmpValues;
+            System.arraycopy(keys, base1, tmpKeys, 0, length1);
+            System.arraycopy(values, base1, tmpValues, 0, length1);
+
+            int cursor1 = 0;
+            int cursor2 = base2;
+            int dest = base1;
+
+            keys[dest] = keys[cursor2];
+            values[dest++] = values[cursor2++];
+            if(--length2 == 0) {
+                System.arraycopy(tmpKeys, cursor1, keys, dest, length1);
+                System.arraycopy(tmpValues, cursor1, values, dest, length1);
+                return;
+            }
+            if(length1 == 1) {
+                System.arraycopy(keys, cursor2, keys, dest, length2);
+                System.arraycopy(values, cursor2, values, dest, length2);
+                keys[dest + length2] = tmpKeys[cursor1];
+                values[dest + length2] = tmpValues[cursor1];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            merging:
+            while(true) {
+                int wins1 = 0;
+                int wins2 = 0;
+
+                //One value at a time until a run wins minGallop times in a row
+                do {
+                    if(keys[cursor2] < tmpKeys[cursor1]) {
+                        keys[dest] = keys[cursor2];
+                        values[dest++] = values[cursor2++];
+                        wins2++;
+                        wins1 = 0;
+                        if(--length2 == 0)
+                            break merging;
+                    } else {
+                        keys[dest] = tmpKeys[cursor1];
+                        values[dest++] = tmpValues[cursor1++];
+                        wins1++;
+                        wins2 = 0;
+                        if(--length1 == 1)
+                            break merging;
+                    }
+                } while((wins1 | wins2) < minGallop);
+
+                //Gallop until neither run wins MIN_GALLOP in a row
+                do {
+                    wins1 = gallopRight(keys[cursor2], tmpKeys, cursor1, length1, 0);
+                    if(wins1 != 0) {
+                        System.arraycopy(tmpKeys, cursor1, keys, dest, wins1);
+                        System.arraycopy(tmpValues, cursor1, values, dest, wins1);
+                        dest += wins1;
+                        cursor1 += wins1;
+                        length1 -= wins1;
+                        if(length1 <= 1)
+                            break merging;
+                    }
+                    keys[dest] = keys[cursor2];
+                    values[dest++] = values[cursor2++];
+                    if(--length2 == 0)
+                        break merging;
+
+                    wins2 = gallopLeft(tmpKeys[cursor1], keys, cursor2, length2, 0);
+                    if(wins2 != 0) {
+                        System.arraycopy(keys, cursor2, keys, dest, wins2);
+                        System.arraycopy(values, cursor2, values, dest, wins2);
+                        dest += wins2;
+                        cursor2 += wins2;
+                        length2 -= wins2;
+                        if(length2 == 0)
+                            break merging;
+                    }
+                    keys[dest] = tmpKeys[cursor1];
+                    values[dest++] = tmpValues[cursor1++];
+                    if(--length1 == 1)
+                        break merging;
+
+                    minGallop--;
+                } while(wins1 >= MIN_GALLOP || wins2 >= MIN_GALLOP);
+
+                if(minGallop < 0)
+                    minGallop = 0;
+                minGallop += 2; //Galloping stopped paying off, make it harder to start again
+            }
+            this.minGallop = Math.max(minGallop, 1);
+
+            if(length1 == 1) {
+                System.arraycopy(keys, cursor2, keys, dest, length2);
+                System.arraycopy(values, cursor2, values, dest, length2);
+                keys[dest + length2] = tmpKeys[cursor1];
+                values[dest + length2] = tmpValues[cursor1];
+            } else {
+                System.arraycopy(tmpKeys, cursor1, keys, dest, length1);
+                System.arraycopy(tmpValues, cursor1, values, dest, length1);
+            }
+        }
+
+        /**
+         * Merges two runs that are next to each other from the back, the second run is copied out so it has to be the
+         * shorter one
+         * The first value of the second run goes before the first run and the last value of the first run goes after
+         * the second run
+         *
+         * @param base1 the start of the first run
+         * @param length1 the length of the first run
+         * @param base2 the start of the second run
+         * @param length2 the length of the second run
+         */
+        private void mergeHigh(int base1, int length1, int base2, int length2) {
+            int[] keys = this.keys;
+            T[] values = this.values;
+            ensureCapacity(length2);
+            int[] tmpKeys = this.tmpKeys;
+            T[] tmpValues = this.tmpValues;
+            System.arraycopy(keys, base2, tmpKeys, 0, length2);
+            System.arraycopy(values, base2, tmpValues, 0, length2);
+
+            int cursor1 = base1 + length1 - 1;
+            int cursor2 = length2 - 1;
+            int dest = base2 + length2 - 1;
+
+            keys[dest] = keys[cursor1];
+            values[dest--] = values[cursor1--];
+            if(--length1 == 0) {
+                System.arraycopy(tmpKeys, 0, keys, dest - (length2 - 1), length2);
+                System.arraycopy(tmpValues, 0, values, dest - (length2 - 1), length2);
+                return;
+            }
+            if(length2 == 1) {
+                dest -= length1;
+                cursor1 -= length1;
+                System.arraycopy(keys, cursor1 + 1, keys, dest + 1, length1);
+                System.arraycopy(values, cursor1 + 1, values, dest + 1, length1);
+                keys[dest] = tmpKeys[cursor2];
+                values[dest] = tmpValues[cursor2];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            merging:
+            while(true) {
+                int wins1 = 0;
+                int wins2 = 0;
+
+                //One value at a time until a run wins minGallop times in a row
+                do {
+                    if(tmpKeys[cursor2] < keys[cursor1]) {
+                        keys[dest] = keys[cursor1];
+                        values[dest--] = values[cursor1--];
+                        wins1++;
+                        wins2 = 0;
+                        if(--length1 == 0)
+                            break merging;
+                    } else {
+                        keys[dest] = tmpKeys[cursor2];
+                        values[dest--] = tmpValues[cursor2--];
+                        wins2++;
+                        wins1 = 0;
+                        if(--length2 == 1)
+                            break merging;
+                    }
+                } while((wins1 | wins2) < minGallop);
+
+                //Gallop until neither run wins MIN_GALLOP in a row
+                do {
+                    wins1 = length1 - gallopRight(tmpKeys[cursor2], keys, base1, length1, length1 - 1);
+                    if(wins1 != 0) {
+                        dest -= wins1;
+                        cursor1 -= wins1;
+                        length1 -= wins1;
+                        System.arraycopy(keys, cursor1 + 1, keys, dest + 1, wins1);
+                        System.arraycopy(values, cursor1 + 1, values, dest + 1, wins1);
+                        if(length1 == 0)
+                            break merging;
+                    }
+                    keys[dest] = tmpKeys[cursor2];
+                    values[dest--] = tmpValues[cursor2--];
+                    if(--length2 == 1)
+                        break merging;
+
+                    wins2 = length2 - gallopLeft(keys[cursor1], tmpKeys, 0, length2, length2 - 1);
+                    if(wins2 != 0) {
+                        dest -= wins2;
+                        cursor2 -= wins2;
+                        length2 -= wins2;
+                        System.arraycopy(tmpKeys, cursor2 + 1, keys, dest + 1, wins2);
+                        System.arraycopy(tmpValues, cursor2 + 1, values, dest + 1, wins2);
+                        if(length2 <= 1)
+                            break merging;
+                    }
+                    keys[dest] = keys[cursor1];
+                    values[dest--] = values[cursor1--];
+                    if(--length1 == 0)
+                        break merging;
+
+                    minGallop--;
+                } while(wins1 >= MIN_GALLOP || wins2 >= MIN_GALLOP);
+
+                if(minGallop < 0)
+                    minGallop = 0;
+                minGallop += 2; //Galloping stopped paying off, make it harder to start again
+            }
+            this.minGallop = Math.max(minGallop, 1);
+
+            if(length2 == 1) {
+                dest -= length1;
+                cursor1 -= length1;
+                System.arraycopy(keys, cursor1 + 1, keys, dest + 1, length1);
+                System.arraycopy(values, cursor1 + 1, values, dest + 1, length1);
+                keys[dest] = tmpKeys[cursor2];
+                values[dest] = tmpValues[cursor2];
+            } else {
+                System.arraycopy(tmpKeys, 0, keys, dest - (length2 - 1), length2);
+                System.arraycopy(tmpValues, 0, values, dest - (length2 - 1), length2);
+            }
+        }
+
+        /**
+         * Makes the buffers at least the length, they grow by doubling up to half of the array
+         *
+         * @param length the length needed
+         */
+        private void ensureCapacity(int length) {
+            if(tmpKeys.length >= length)
+                return;
+
+            int capacity = Math.max(length, Math.min(tmpKeys.length * 2, keys.length >>> 1));
+            tmpKeys = new int[capacity];
+            tmpValues = Generics.newGenericArray(values, capacity);
+        }
+    }
+
+    /**
+     * Finds where the key goes in a sorted range, before the values that are equal to it
+     * The search starts at the hint and looks at offsets 1, 3, 7, 15... from it before a binary search, so a key that
+     * goes close to the hint is found in a few comparisons
+     *
+     * @param key the key to find the place of
+     * @param keys the array holding the range
+     * @param base the start of the range
+     * @param length the length of the range
+     * @param hint where to start searching, from 0 to length - 1
+     * @return the number of keys in the range that are less than the key
+     */
+    static int gallopLeft(int key, int[] keys, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+
+        if(key > keys[base + hint]) {
+            int maxOffset = length - hint;
+            while(offset < maxOffset && key > keys[base + hint + offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if(offset <= 0)
+                    offset = maxOffset; //Overflow
+            }
+            if(offset > maxOffset)
+                offset = maxOffset;
+
+            lastOffset += hint;
+            offset += hint;
+        } else {
+            int maxOffset = hint + 1;
+            while(offset < maxOffset && key <= keys[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if(offset <= 0)
+                    offset = maxOffset;
+            }
+            if(offset > maxOffset)
+                offset = maxOffset;
+
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+
+        //The key goes after lastOffset and at or before offset
+        lastOffset++;
+        while(lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if(key > keys[base + mid])
+                lastOffset = mid + 1;
+            else
+                offset = mid;
+        }
+        return offset;
+    }
+
+    /**
+     * Finds where the key goes in a sorted range, after the values that are equal to it
+     * Searches the same way as {@link #gallopLeft(int, int[], int, int, int)}
+     *
+     * @param key the key to find the place of
+     * @param keys the array holding the range
+     * @param base the start of the range
+     * @param length the length of the range
+     * @param hint where to start searching, from 0 to length - 1
+     * @return the number of keys in the range that are less than or equal to the key
+     */
+    static int gallopRight(int key, int[] keys, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+
+        if(key < keys[base + hint]) {
+            int maxOffset = hint + 1;
+            while(offset < maxOffset && key < keys[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if(offset <= 0)
+                    offset = maxOffset; //Overflow
+            }
+            if(offset > maxOffset)
+                offset = maxOffset;
+
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        } else {
+            int maxOffset = length - hint;
+            while(offset < maxOffset && key >= keys[base + hint + offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if(offset <= 0)
+                    offset = maxOffset;
+            }
+            if(offset > maxOffset)
+                offset = maxOffset;
+
+            lastOffset += hint;
+            offset += hint;
+        }
+
+        //The key goes after lastOffset and at or before offset
+        lastOffset++;
+        while(lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if(key < keys[base + mid])
+                offset = mid;
+            else
+                lastOffset = mid + 1;
+        }
+        return offset;
+    }
+
+    /**
+     * Sorts the provided array by constructing a new {@code RunSort} object then using it
+     *
+     * @param arr the array to sort
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> void sort(T[] arr, Representor<T> representor) {
+        new RunSort<T>(representor).sort(arr);
+    }
+
+    /**
+     * Returns a new {@code RunSort} object to be used multiple times
+     *
+     * @param representor the {@code Representor} for the provided object type
+     * @param <T> the object type of the array
+     */
+    public static <T> RunSort<T> getInstance(Representor<T> representor) {
+        return new RunSort<>(representor);
+    }
+}
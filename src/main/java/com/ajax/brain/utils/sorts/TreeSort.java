@@ -1,8 +1,22 @@
 package com.ajax.brain.utils.sorts;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
 
+/**
+ * Implementation of a TreeSort algorithm
+ *
+ * The values are put in an AVL tree, a binary tree that rotates its nodes after every insertion so the heights of the two
+ * sides of a node never differ by more than one, then read back in order
+ * The tree stays about log n deep on any input so sorting takes O(n log n) time, and both the insertion and the
+ * traversal are loops so no input can overflow the stack
+ * Values with the same key share one node of the tree and are kept in the order they were in, the sort is stable
+ */
 public final class TreeSort<T> extends Sort<T>{
+    /**
+     * More than the height of an AVL tree with {@link Integer#MAX_VALUE} nodes, which is less than 1.45 log n
+     * The stacks are created this large so they never grow
+     */
+    private static final int MAX_HEIGHT = 48;
 
     /**
      * Creates a new {@code TreeSort} with the {@code Representor}
@@ -18,20 +32,171 @@ public final class TreeSort<T> extends Sort<T>{
      * Sorts the provided array with a TreeSort
      *
      * @param arr the array to sort
+     * @throws NullPointerException if the array is null
      */
     @Override
     public void sort(T[] arr) {
+        if(arr == null) {
+            throw new NullPointerException("The array can not be null");
+        }
         if(arr.length == 0) {
             return;
         }
 
-        Node head = new Node(arr[0]);
+        Node<T> root = new Node<>(representor.convert(arr[0]), arr[0]);
+        ArrayDeque<Node<T>> path = new ArrayDeque<>(MAX_HEIGHT);
 
         for(int x = 1; x < arr.length; x++) {
-            head.place(arr[x]);
+            root = place(root, arr[x], path);
         }
 
-        head.getInOrder(arr);
+        getInOrder(root, arr);
+    }
+
+    /**
+     * Places the value in the tree then rebalances the nodes on the path to it
+     *
+     * @param root the root of the tree
+     * @param value the value to place
+     * @param path an empty stack for the nodes from the root to the new node, left empty
+     * @return the root of the tree, which can change when it is rotated
+     */
+    private Node<T> place(Node<T> root, T value, ArrayDeque<Node<T>> path) {
+        int key = representor.convert(value);
+        Node<T> node = root;
+
+        while(true) {
+            if(key == node.key) {
+                node.append(new Node<>(key, value)); //The shape of the tree doesn't change
+                path.clear();
+                return root;
+            }
+
+            path.push(node);
+            if(key < node.key) {
+                if(node.left == null) {
+                    node.left = new Node<>(key, value);
+                    break;
+                }
+                node = node.left;
+            } else {
+                if(node.right == null) {
+                    node.right = new Node<>(key, value);
+                    break;
+                }
+                node = node.right;
+            }
+        }
+
+        while(!path.isEmpty()) {
+            Node<T> parent = path.pop();
+            int height = parent.height;
+            Node<T> balanced = balance(parent);
+
+            if(balanced == parent && balanced.height == height)
+                break; //Nothing above this changes
+
+            Node<T> grandparent = path.peek();
+            if(grandparent == null)
+                root = balanced;
+            else if(grandparent.left == parent)
+                grandparent.left = balanced;
+            else
+                grandparent.right = balanced;
+        }
+
+        path.clear();
+        return root;
+    }
+
+    /**
+     * Updates the height of the node and rotates it if one side is more than one level deeper than the other
+     *
+     * @param node the node whose children are balanced
+     * @return the node that takes the node's place
+     */
+    private Node<T> balance(Node<T> node) {
+        int difference = height(node.left) - height(node.right);
+
+        if(difference > 1) {
+            if(height(node.left.left) < height(node.left.right))
+                node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if(difference < -1) {
+            if(height(node.right.right) < height(node.right.left))
+                node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+
+        node.updateHeight();
+        return node;
+    }
+
+    /**
+     * Makes the left child of the node its parent
+     *
+     * @param node the node to rotate
+     * @return the node that takes the node's place
+     */
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.updateHeight();
+        left.updateHeight();
+        return left;
+    }
+
+    /**
+     * Makes the right child of the node its parent
+     *
+     * @param node the node to rotate
+     * @return the node that takes the node's place
+     */
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.updateHeight();
+        right.updateHeight();
+        return right;
+    }
+
+    /**
+     * Returns the height of the node
+     *
+     * @param node the node or {@code null}
+     * @return the height, 0 for {@code null}
+     */
+    private static int height(Node<?> node) {
+        return node == null? 0: node.height;
+    }
+
+    /**
+     * Puts the tree into the array in order
+     *
+     * @param root the root of the tree
+     * @param arr the array to put the tree in
+     */
+    private void getInOrder(Node<T> root, T[] arr) {
+        ArrayDeque<Node<T>> nodeStack = new ArrayDeque<>(MAX_HEIGHT);
+
+        Node<T> current = root;
+        int index = 0;
+
+        while (!nodeStack.isEmpty() || current != null){
+            if(current != null) {
+                nodeStack.push(current);
+                current = current.left;
+            } else {
+                Node<T> n = nodeStack.pop();
+                for(Node<T> same = n; same != null; same = same.next) {
+                    arr[index++] = same.value;
+                }
+                current = n.right;
+            }
+        }
     }
 
     /**
@@ -54,87 +219,84 @@ public final class TreeSort<T> extends Sort<T>{
     }
 
     /**
-     * The {@code Node} class represents a Binary Tree node
+     * The {@code Node} class represents an AVL tree node
      *
      * A binary tree is a structure for storing elements in a fast and sorted way
-     * If a element is less than or equal the head it goes to the left
+     * If a key is less than the node's it goes to the left, if it is greater it goes to the right and if it is the same it
+     * goes at the end of the node's list of values
      *        3
      *       / \
      *      1   4
      *     /\    \
      *    0  2    5
      */
-    private class Node {
+    private static final class Node<T> {
+        /**
+         * The key of every value of this node
+         */
+        final int key;
+
+        /**
+         * The stored value of this node
+         */
+        final T value;
+
         /**
          * The node to the left of this one
          *
-         * The left node is less than or equal to this node
+         * The left node is less than this node
          */
-        Node left;
+        Node<T> left;
 
         /**
          * The node to the right of this one
          *
          * The right node is greater than this one
          */
-        Node right;
+        Node<T> right;
 
         /**
-         * The stored value of this node
+         * The number of nodes on the longest path from this node down, 1 if the node has no children
          */
-        T value;
+        int height = 1;
 
         /**
-         * Creates a new Binary Tree node
+         * The next value with the same key, in the order they were placed
+         */
+        Node<T> next;
+
+        /**
+         * The last value with the same key, only kept by the node in the tree
+         */
+        Node<T> last;
+
+        /**
+         * Creates a new AVL tree node
          *
+         * @param key the key of the value
          * @param value the value for the node to store
          */
-        Node(T value) {
+        Node(int key, T value) {
+            this.key = key;
             this.value = value;
+            this.last = this;
         }
 
         /**
-         * Places the node in the correct spot for the Binary Tree
+         * Adds a value with the same key after the node's other values
          *
-         * @param other the value to place
+         * @param same the node holding the value
          */
-        void place(T other) {
-            if(representor.convert(other) > representor.convert(this.value)) {
-                if(right != null) {
-                    right.place(other);
-                } else {
-                    right = new Node(other);
-                }
-            } else {
-                if(left != null) {
-                    left.place(other);
-                } else {
-                    left = new Node(other);
-                }
-            }
+        void append(Node<T> same) {
+            last.next = same;
+            last = same;
         }
 
         /**
-         * Puts the Binary Tree into the array in order
-         *
-         * @param arr the array to put the Binary Tree in
+         * Sets the height from the heights of the children
          */
-        void getInOrder(T[] arr) {
-            Stack<Node> nodeStack = new Stack<>();
-
-            Node current = this;
-            int index = 0;
-
-            while (!nodeStack.isEmpty() || current != null){
-                if(current != null) {
-                    nodeStack.push(current);
-                    current = current.left;
-                } else {
-                    Node n = nodeStack.pop();
-                    arr[index++] = n.value;
-                    current = n.right;
-                }
-            }
+        void updateHeight() {
+            height = 1 + Math.max(height(left), height(right));
         }
     }
 }
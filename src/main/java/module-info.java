@@ -1,5 +1,6 @@
 module Brain {
     requires sphinx.core;
+    requires java.management;
 
     exports com.ajax.brain.linguist.en;
     exports com.ajax.brain.linguist;
@@ -0,0 +1,106 @@
+import com.ajax.brain.linguist.CompiledMatcherSet;
+import com.ajax.brain.linguist.Lexer;
+import com.ajax.brain.linguist.LexerMetrics;
+import com.ajax.brain.linguist.Matcher;
+import com.ajax.brain.linguist.MatcherList;
+import com.ajax.brain.linguist.TokenType;
+import com.ajax.brain.linguist.en.EnglishMatchers;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledMatcherSetTest {
+
+    @Test
+    void matchesLikeMatcherList() {
+        Random random = new Random(42);
+        MatcherList matchers = new MatcherList();
+        matchers.addAll(EnglishMatchers.getDefaultInstance().getMatchers());
+
+        String[] lexicon = new String[20000];
+        for(int x = 0; x < lexicon.length; x++) {
+            lexicon[x] = randomWord(random);
+            matchers.add(Matcher.getSimpleMatcher(lexicon[x], random.nextInt(10), TokenType.values()[random.nextInt(TokenType.values().length)], random.nextBoolean()));
+        }
+        matchers.add(Matcher.getRegexMatcher(4, TokenType.HYPHEN, false, "^[a-z]+-[a-z]+$"));
+
+        CompiledMatcherSet compiled = new CompiledMatcherSet(matchers);
+
+        for(int x = 0; x < 50000; x++) {
+            String word;
+            switch (random.nextInt(4)) {
+                case 0: word = lexicon[random.nextInt(lexicon.length)]; break;
+                case 1: word = lexicon[random.nextInt(lexicon.length)].toUpperCase(); break;
+                case 2: word = randomWord(random) + "-" + randomWord(random); break;
+                default: word = randomWord(random);
+            }
+
+            assertSame(linearMatch(matchers, word), compiled.match(word), word);
+        }
+
+        for(String word: new String[]{"And", "NEITHER", "12345", "\u212And", "caf\u00e9"}) {
+            assertSame(linearMatch(matchers, word), compiled.match(word), word);
+        }
+    }
+
+    @Test
+    void nonAsciiWordsUseTheTrie() throws IOException {
+        MatcherList matchers = new MatcherList();
+        for(int x = 0; x < 20000; x++) {
+            matchers.add(Matcher.getSimpleMatcher("word" + x, 5, TokenType.TEST, true));
+        }
+        Matcher kelvin = Matcher.getSimpleMatcher("kelvin", 5, TokenType.TEST, true);
+        matchers.add(kelvin);
+        CompiledMatcherSet compiled = new CompiledMatcherSet(matchers);
+
+        int[] counts = new int[2];
+        Lexer lexer = new Lexer("caf\u00e9 na\u00efve \u00fcber WORD7 stra\u00dfe", compiled);
+        lexer.setMetrics(new LexerMetrics() {
+            @Override
+            public void wordMatched(int evaluations) {
+                counts[0]++;
+                counts[1] += evaluations;
+            }
+        });
+        lexer.lex();
+
+        assertEquals(5, counts[0]);
+        assertEquals(counts[0], counts[1], "Every word is one trie lookup");
+
+        //Only the letters that fold into ASCII need every Matcher
+        assertSame(kelvin, compiled.match("\u212Aelvin"));
+        assertSame(linearMatch(matchers, "word\u0131"), compiled.match("word\u0131"));
+        assertNull(compiled.match("w\u00f6rd7"));
+    }
+
+    @Test
+    void lowestPriorityWins() {
+        Matcher low = Matcher.getSimpleMatcher("either", 1, TokenType.WORD, true);
+        Matcher high = Matcher.getMultiWordMatcher(3, TokenType.CORRELATIVE_CONJUNCTION, false, "either", "neither");
+
+        CompiledMatcherSet compiled = new CompiledMatcherSet(new MatcherList(high, low));
+
+        assertSame(low, compiled.match("Either"));
+        assertSame(high, compiled.match("neither"));
+        assertNull(compiled.match("Neither"));
+    }
+
+    private static Matcher linearMatch(MatcherList matchers, String word) {
+        for(Matcher matcher: matchers) {
+            if(!matcher.isCharacterMatch() && matcher.match(word))
+                return matcher;
+        }
+        return null;
+    }
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[1 + random.nextInt(4)];
+        for(int x = 0; x < chars.length; x++) {
+            chars[x] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,184 @@
+import com.ajax.brain.utils.sorts.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalSortTest {
+    private static final ExternalSort.Codec<Integer> INTS = new ExternalSort.Codec<Integer>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private static final ExternalSort.Codec<String> STRINGS = new ExternalSort.Codec<String>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @Test
+    public void testMergePassesAreStable() throws IOException {
+        Path directory = Files.createTempDirectory("external-sort");
+        try {
+            Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+            Integer[] values = ThreadLocalRandom.current().ints(10_000, -100_000, 100_000).boxed().toArray(Integer[]::new);
+            Integer[] expected = values.clone();
+            Arrays.sort(expected, Representor.toComparator(byHundreds)); //Arrays.sort is stable for objects
+
+            //100 runs merged 3 at a time takes several passes
+            for(Sort<Integer> sort: List.of(RunSort.getInstance(byHundreds), MergeSort.getInstance(byHundreds), RadixSort.getInstance(byHundreds))) {
+                List<Integer> sorted = new ArrayList<>();
+                long count = ExternalSort.getInstance(sort, INTS, Integer.class, 100, 3, directory).sort(Arrays.asList(values).iterator(), sorted::add);
+
+                assertEquals(values.length, count);
+                assertArrayEquals(expected, sorted.toArray(new Integer[0]), sort.getClass().getSimpleName());
+                assertTrue(isEmpty(directory), "The temporary files are deleted");
+            }
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testSmallInputs() throws IOException {
+        Path directory = Files.createTempDirectory("external-sort");
+        try {
+            ExternalSort<Integer> sort = ExternalSort.getInstance(RunSort.getInstance(Integer::intValue), INTS, Integer.class, 1000, 2, directory);
+
+            List<Integer> sorted = new ArrayList<>();
+            assertEquals(0, sort.sort(Collections.<Integer>emptyIterator(), sorted::add));
+            assertTrue(sorted.isEmpty());
+
+            //Fits in one run, sorted without files
+            assertEquals(3, sort.sort(List.of(3, 1, 2).iterator(), sorted::add));
+            assertEquals(List.of(1, 2, 3), sorted);
+
+            //Exactly two full runs
+            sorted.clear();
+            List<Integer> values = new ArrayList<>();
+            for(int x = 2000; x > 0; x--) {
+                values.add(x);
+            }
+            assertEquals(2000, sort.sort(values.iterator(), sorted::add));
+            Collections.reverse(values);
+            assertEquals(values, sorted);
+            assertTrue(isEmpty(directory));
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testSortFiles() throws IOException {
+        Path directory = Files.createTempDirectory("external-sort");
+        Path input = directory.resolve("input");
+        Path output = directory.resolve("output");
+        try {
+            String[] words = new String[5000];
+            for(int x = 0; x < words.length; x++) {
+                words[x] = "word" + ThreadLocalRandom.current().nextInt(100_000);
+            }
+            try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(input))) {
+                for(String word: words) {
+                    STRINGS.write(word, out);
+                }
+            }
+
+            Representor<String> byLength = String::length;
+            long count = ExternalSort.getInstance(RunSort.getInstance(byLength), STRINGS, String.class, 64, 8, directory).sort(input, output);
+            assertEquals(words.length, count);
+
+            String[] expected = words.clone();
+            Arrays.sort(expected, Representor.toComparator(byLength));
+            String[] sorted = new String[words.length];
+            try(DataInputStream in = new DataInputStream(Files.newInputStream(output))) {
+                for(int x = 0; x < sorted.length; x++) {
+                    sorted[x] = STRINGS.read(in);
+                }
+                assertEquals(-1, in.read());
+            }
+            assertArrayEquals(expected, sorted);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            assertTrue(isEmpty(directory), "The temporary files are deleted");
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testSortWithFixedTypeSort() throws IOException {
+        //The bridge method of a Sort<String> casts the run to String[]
+        Sort<String> byLength = new Sort<String>(String::length) {
+            @Override
+            public void sort(String[] arr) {
+                InsertionSort.sort(arr, representor);
+            }
+        };
+
+        for(int runLength: new int[]{10, 2}) {
+            List<String> sorted = new ArrayList<>();
+            ExternalSort.getInstance(byLength, STRINGS, String.class, runLength, 2, null).sort(List.of("ccc", "a", "bb").iterator(), sorted::add);
+            assertEquals(List.of("a", "bb", "ccc"), sorted);
+        }
+    }
+
+    @Test
+    public void testOutputCanNotBeInput() throws IOException {
+        Path input = Files.createTempFile("external-sort", ".run");
+        try {
+            try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(input))) {
+                INTS.write(2, out);
+                INTS.write(1, out);
+            }
+
+            ExternalSort<Integer> sort = ExternalSort.getInstance(Integer::intValue, INTS, Integer.class);
+            assertThrows(IllegalArgumentException.class, () -> sort.sort(input, input));
+            assertEquals(8, Files.size(input), "The input is not truncated");
+        } finally {
+            Files.delete(input);
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Sort<Integer> sort = RunSort.getInstance(Integer::intValue);
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.getInstance(sort, INTS, Integer.class, 0, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.getInstance(sort, INTS, Integer.class, 10, 1, null));
+        assertThrows(NullPointerException.class, () -> ExternalSort.getInstance(sort, null, Integer.class, 10, 2, null));
+        assertThrows(NullPointerException.class, () -> ExternalSort.getInstance(sort, INTS, null, 10, 2, null));
+        assertThrows(NullPointerException.class, () -> ExternalSort.getInstance(Integer::intValue, INTS, Integer.class).sort(null, value -> {}));
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        }
+    }
+}
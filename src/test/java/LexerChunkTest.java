@@ -0,0 +1,347 @@
+import com.ajax.brain.linguist.Lexer;
+import com.ajax.brain.linguist.Matcher;
+import com.ajax.brain.linguist.MatcherList;
+import com.ajax.brain.linguist.Token;
+import com.ajax.brain.linguist.TokenBuffer;
+import com.ajax.brain.linguist.TokenType;
+import com.ajax.brain.linguist.en.EnglishMatchers;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lexes the same text with every small chunk size, read size and mapped window size to hit every chunk boundary
+ */
+class LexerChunkTest {
+    static final MatcherList MATCHERS = new MatcherList(EnglishMatchers.getDefaultInstance().getMatchers());
+
+    static final String LONG_WORD = "pneumonoultramicroscopicsilicovolcanoconiosis".repeat(5);
+
+    static final String[] TEXTS = {
+            "",
+            " ",
+            "a",
+            "apples",
+            "apples, oranges; and pears.",
+            "  leading and trailing whitespace  ",
+            "no space,between:tokens;at.all!",
+            "a " + LONG_WORD + " b",
+            LONG_WORD + "," + LONG_WORD,
+            "ends with a word",
+            "ends with a token?",
+            "1 2 33 444, either 5555 or neither..."
+    };
+
+    @Test
+    void everyChunkBoundary() throws IOException {
+        for(String text: TEXTS) {
+            List<Token> expected = lex(new Lexer(text, MATCHERS));
+
+            for(int bufferSize = 1; bufferSize <= 40; bufferSize++) {
+                for(int readSize = 1; readSize <= 7; readSize++) {
+                    Lexer lexer = new Lexer(new ShortReadInputStream(text.getBytes(), readSize), MATCHERS, bufferSize);
+
+                    assertEquals(expected, lex(lexer), "buffer size " + bufferSize + ", read size " + readSize + ": " + text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void everyMappedWindowBoundary() throws IOException {
+        File file = File.createTempFile("lexer", ".txt");
+        file.deleteOnExit();
+
+        for(String text: TEXTS) {
+            Files.write(file.toPath(), text.getBytes());
+            List<Token> expected = lex(new Lexer(text, MATCHERS));
+
+            for(int windowSize = 1; windowSize <= 13; windowSize++) {
+                Lexer lexer = new Lexer(file, MATCHERS, windowSize);
+
+                assertEquals(expected, lex(lexer), "window size " + windowSize + ": " + text);
+                lexer.dispose();
+            }
+            Lexer lexer = new Lexer(file, MATCHERS);
+            assertEquals(expected, lex(lexer));
+            lexer.dispose();
+        }
+    }
+
+    @Test
+    void badWindowSizeIsCheckedBeforeOpening() {
+        //The file doesn't exist, so reaching the open would throw FileNotFoundException instead
+        File missing = new File("missing-" + System.nanoTime() + ".txt");
+        assertThrows(IllegalArgumentException.class, () -> new Lexer(missing, MATCHERS, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Lexer(missing, MATCHERS, -1));
+    }
+
+    @Test
+    void parallelMatchesSequential() throws IOException {
+        File file = File.createTempFile("lexer", ".txt");
+        file.deleteOnExit();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        for(String text: TEXTS) {
+            Files.write(file.toPath(), text.getBytes());
+            List<Token> expected = lex(new Lexer(text, MATCHERS));
+
+            for(int chunkSize = 1; chunkSize <= 20; chunkSize++) {
+                Lexer lexer = new Lexer(text, MATCHERS);
+                lexer.lexParallel(pool, chunkSize);
+                assertEquals(expected, tokens(lexer), "chunk size " + chunkSize + ": " + text);
+
+                for(int windowSize = 1; windowSize <= 7; windowSize++) {
+                    lexer = new Lexer(file, MATCHERS, windowSize);
+                    lexer.lexParallel(pool, chunkSize);
+                    assertEquals(expected, tokens(lexer), "chunk size " + chunkSize + ", window size " + windowSize + ": " + text);
+                    lexer.dispose();
+                }
+            }
+
+            Lexer lexer = new Lexer(new ByteArrayInputStream(text.getBytes()), MATCHERS);
+            lexer.lexParallel(pool, 4);
+            assertEquals(expected, tokens(lexer));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void tokenBufferMatchesTokens() throws IOException {
+        File file = File.createTempFile("lexer", ".txt");
+        file.deleteOnExit();
+
+        for(String text: TEXTS) {
+            Files.write(file.toPath(), text.getBytes());
+            List<Token> expected = lex(new Lexer(text, MATCHERS));
+
+            TokenBuffer buffer = new TokenBuffer(0);
+            new Lexer(text, MATCHERS).lex(buffer);
+            assertEquals(expected, tokens(buffer), text);
+
+            for(int bufferSize = 1; bufferSize <= 20; bufferSize++) {
+                buffer = new TokenBuffer();
+                new Lexer(new ShortReadInputStream(text.getBytes(), 3), MATCHERS, bufferSize).lex(buffer);
+                assertEquals(expected, tokens(buffer), "buffer size " + bufferSize + ": " + text);
+
+                Lexer lexer = new Lexer(file, MATCHERS, bufferSize);
+                buffer = new TokenBuffer();
+                lexer.lex(buffer);
+                assertEquals(expected, tokens(buffer), "window size " + bufferSize + ": " + text);
+                lexer.dispose();
+            }
+        }
+    }
+
+    @Test
+    void tokenBufferBatches() throws IOException {
+        String text = TEXTS[TEXTS.length - 1];
+        List<Token> expected = lex(new Lexer(text, MATCHERS));
+        List<Token> actual = new ArrayList<>();
+        Lexer lexer = new Lexer(new ByteArrayInputStream(text.getBytes()), MATCHERS, 4);
+        TokenBuffer buffer = new TokenBuffer();
+
+        boolean more;
+        do {
+            more = lexer.lex(buffer, 3);
+            assertTrue(buffer.size() <= 4);
+            actual.addAll(tokens(buffer));
+            buffer.clear();
+        } while(more);
+
+        assertEquals(expected, actual);
+        assertThrows(IllegalArgumentException.class, () -> lexer.lex(buffer, 0));
+    }
+
+    @Test
+    void tokenBufferColumns() throws IOException {
+        TokenBuffer buffer = new TokenBuffer();
+        new Lexer("apples and pears, or oranges.", MATCHERS).lex(buffer);
+
+        assertEquals(7, buffer.size());
+        assertEquals(3, buffer.count(TokenType.WORD));
+        assertEquals(2, buffer.count(TokenType.COORDINATING_CONJUNCTION));
+        assertEquals(4, buffer.indexOf(TokenType.COORDINATING_CONJUNCTION, 2));
+        assertEquals(-1, buffer.indexOf(TokenType.HYPHEN, 0));
+        assertEquals("pears", buffer.getValue(2));
+        assertEquals(5, buffer.getLength(2));
+        assertEquals(TokenType.PUNCTUATION, buffer.getType(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getType(7));
+
+        Iterator<Token> iterator = buffer.iterator();
+        while(iterator.hasNext()) {
+            if(iterator.next().getType() == TokenType.COORDINATING_CONJUNCTION)
+                iterator.remove();
+        }
+        assertEquals(List.of(new Token(TokenType.WORD, "apples"), new Token(TokenType.WORD, "pears"),
+                new Token(TokenType.LIST_SEPARATOR, ","), new Token(TokenType.WORD, "oranges"),
+                new Token(TokenType.PUNCTUATION, ".")), tokens(buffer));
+    }
+
+    @Test
+    void utf8EveryChunkBoundary() throws IOException {
+        MatcherList matchers = new MatcherList(EnglishMatchers.getDefaultInstance().getMatchers());
+        matchers.add(Matcher.getMultiCharacterMatcher(0, TokenType.PUNCTUATION, "\u00BF\u00AB\u00BB"));
+        matchers.add(Matcher.getCharacterMatcher('\u2014', 0, TokenType.HYPHEN));
+        matchers.add(Matcher.getSimpleMatcher("na\u00EFve", 0, TokenType.OPERATOR, false));
+
+        String text = "\u00BFQu\u00E9 tal?  \u00ABna\u00EFve\u00BB caf\u00E9\u2014\u65E5\u672C\u8A9E\u3000\u30C6\u30AD\u30B9\u30C8 \uD83D\uDE00 end";
+        List<Token> expected = List.of(
+                new Token(TokenType.PUNCTUATION, "\u00BF"), new Token(TokenType.WORD, "Qu\u00E9"),
+                new Token(TokenType.WORD, "tal"), new Token(TokenType.PUNCTUATION, "?"),
+                new Token(TokenType.PUNCTUATION, "\u00AB"), new Token(TokenType.OPERATOR, "na\u00EFve"),
+                new Token(TokenType.PUNCTUATION, "\u00BB"), new Token(TokenType.WORD, "caf\u00E9"),
+                new Token(TokenType.HYPHEN, "\u2014"), new Token(TokenType.WORD, "\u65E5\u672C\u8A9E"),
+                new Token(TokenType.WORD, "\u30C6\u30AD\u30B9\u30C8"), new Token(TokenType.WORD, "\uD83D\uDE00"),
+                new Token(TokenType.WORD, "end"));
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(expected, lex(new Lexer(text, matchers)));
+
+        for(int bufferSize = 1; bufferSize <= 20; bufferSize++) {
+            Lexer lexer = new Lexer(new ShortReadInputStream(bytes, 3), Matcher.getWhitespaceMatcher(), matchers, bufferSize, StandardCharsets.UTF_8);
+            assertEquals(expected, lex(lexer), "buffer size " + bufferSize);
+
+            TokenBuffer buffer = new TokenBuffer();
+            new Lexer(new ShortReadInputStream(bytes, 3), Matcher.getWhitespaceMatcher(), matchers, bufferSize, StandardCharsets.UTF_8).lex(buffer);
+            assertEquals(expected, tokens(buffer), "buffer size " + bufferSize);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for(int chunkSize = 1; chunkSize <= 20; chunkSize++) {
+            Lexer lexer = new Lexer(text, matchers);
+            lexer.lexParallel(pool, chunkSize);
+            assertEquals(expected, tokens(lexer), "chunk size " + chunkSize);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void invalidUtf8StaysInWords() throws IOException {
+        byte[] bytes = {(byte) 0xFF, 'a', ' ', 'b', (byte) 0xC3, ' ', (byte) 0xA9, (byte) 0xC3, 'c', ' ', (byte) 0xE2, (byte) 0x80, '.', (byte) 0xC3};
+        List<Token> expected = lex(new Lexer(new ByteArrayInputStream(bytes), MATCHERS));
+
+        assertEquals(List.of(new Token(TokenType.WORD, "\uFFFDa"), new Token(TokenType.WORD, "b\uFFFD"),
+                new Token(TokenType.WORD, "\uFFFD\uFFFDc"), new Token(TokenType.WORD, "\uFFFD"),
+                new Token(TokenType.PUNCTUATION, "."), new Token(TokenType.WORD, "\uFFFD")), expected);
+
+        for(int bufferSize = 1; bufferSize <= 8; bufferSize++) {
+            assertEquals(expected, lex(new Lexer(new ByteArrayInputStream(bytes), MATCHERS, bufferSize)), "buffer size " + bufferSize);
+        }
+    }
+
+    @Test
+    void longWordsGrowTheWordBuffer() throws IOException {
+        List<Token> tokens = lex(new Lexer(new ByteArrayInputStream(("x " + LONG_WORD).getBytes()), MATCHERS, 16));
+
+        assertEquals(List.of(new Token(TokenType.WORD, "x"), new Token(TokenType.WORD, LONG_WORD)), tokens);
+    }
+
+    @Test
+    void shortReadsDontLexStaleBytes() throws IOException {
+        Lexer lexer = new Lexer(new ShortReadInputStream("and or".getBytes(), 4), MATCHERS, 1000);
+
+        assertEquals(List.of(new Token(TokenType.COORDINATING_CONJUNCTION, "and"), new Token(TokenType.COORDINATING_CONJUNCTION, "or")), lex(lexer));
+    }
+
+    @Test
+    void emptyStream() throws IOException {
+        assertTrue(lex(new Lexer(new ByteArrayInputStream(new byte[0]), MATCHERS)).isEmpty());
+    }
+
+    @Test
+    void invalidBufferSize() {
+        assertThrows(IllegalArgumentException.class, () -> new Lexer(new ByteArrayInputStream(new byte[0]), MATCHERS, 0));
+    }
+
+    @Test
+    void streamThatNeverReturnsDataFails() {
+        //Returns 0 forever like a non-blocking stream with nothing to read
+        InputStream empty = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return 0;
+            }
+        };
+        assertThrows(IOException.class, () -> lex(new Lexer(empty, MATCHERS)));
+    }
+
+    @Test
+    void readTimeoutIsNotTheEnd() {
+        InputStream stalled = new InputStream() {
+            final ShortReadInputStream data = new ShortReadInputStream("apples and".getBytes(), 3);
+
+            @Override
+            public int read() throws IOException {
+                return read(new byte[1], 0, 1);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = data.read(b, off, len);
+                if(n == -1)
+                    throw new SocketTimeoutException("Read timed out");
+                return n;
+            }
+        };
+        assertThrows(SocketTimeoutException.class, () -> lex(new Lexer(stalled, MATCHERS)));
+    }
+
+    static List<Token> lex(Lexer lexer) throws IOException {
+        lexer.lex();
+        return tokens(lexer);
+    }
+
+    static List<Token> tokens(Iterable<Token> iterable) {
+        List<Token> tokens = new ArrayList<>();
+        iterable.forEach(tokens::add);
+        return tokens;
+    }
+
+    /**
+     * Never returns more than a few bytes per read like a slow socket would
+     */
+    static class ShortReadInputStream extends InputStream {
+        final byte[] data;
+        final int readSize;
+        int index;
+
+        ShortReadInputStream(byte[] data, int readSize) {
+            this.data = data;
+            this.readSize = readSize;
+        }
+
+        @Override
+        public int read() {
+            return index == data.length? -1: data[index++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if(index == data.length)
+                return -1;
+
+            int n = Math.min(Math.min(len, readSize), data.length - index);
+            System.arraycopy(data, index, b, off, n);
+            index += n;
+            return n;
+        }
+    }
+}
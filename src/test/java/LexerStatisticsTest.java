@@ -0,0 +1,95 @@
+import com.ajax.brain.linguist.*;
+import com.ajax.brain.linguist.en.EnglishMatchers;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexerStatisticsTest {
+    static final MatcherList MATCHERS = new MatcherList(EnglishMatchers.getDefaultInstance().getMatchers());
+
+    static final String TEXT = "the cat and the dog, the bird; the end.";
+
+    @Test
+    void countsEverything() throws IOException {
+        byte[] bytes = TEXT.getBytes();
+        Lexer lexer = new Lexer(new ByteArrayInputStream(bytes), MATCHERS, 8);
+        LexerStatistics statistics = new LexerStatistics();
+        lexer.setMetrics(statistics);
+        List<Token> tokens = lex(lexer);
+
+        LexerStatistics.Snapshot snapshot = statistics.snapshot();
+        assertEquals(bytes.length, snapshot.getBytes());
+        assertEquals((bytes.length + 7) / 8, snapshot.getRefills());
+        assertEquals(tokens.size(), snapshot.getTokens());
+        for(TokenType type: TokenType.values()) {
+            assertEquals(tokens.stream().filter(token -> token.getType() == type).count(), snapshot.getTokens(type), type.name());
+        }
+
+        assertEquals(tokens.size() - 3, snapshot.getMatchedWords()); //Every token but the three character tokens is a word
+        assertTrue(snapshot.getMatcherEvaluations() >= snapshot.getMatchedWords());
+        assertEquals(0, snapshot.getWordBufferGrowths());
+
+        statistics.reset();
+        assertEquals(0, statistics.getBytes());
+        assertEquals(0, statistics.getTokens());
+    }
+
+    @Test
+    void wordBufferGrowth() throws IOException {
+        String text = "a " + "b".repeat(1000) + " c";
+        Lexer lexer = new Lexer(new ByteArrayInputStream(text.getBytes()), MATCHERS, 16);
+        LexerStatistics statistics = new LexerStatistics();
+        lexer.setMetrics(statistics);
+        lex(lexer);
+
+        assertTrue(statistics.getWordBufferGrowths() > 0);
+        assertEquals(3, statistics.getTokens(TokenType.WORD));
+    }
+
+    @Test
+    void offByDefault() {
+        Lexer lexer = new Lexer(TEXT, MATCHERS);
+        assertSame(LexerMetrics.NONE, lexer.getMetrics());
+
+        lexer.setMetrics(new LexerStatistics());
+        lexer.setMetrics(null);
+        assertSame(LexerMetrics.NONE, lexer.getMetrics());
+    }
+
+    @Test
+    void jmx() throws IOException, JMException {
+        LexerStatistics statistics = new LexerStatistics();
+        Lexer lexer = new Lexer(TEXT, MATCHERS);
+        lexer.setMetrics(statistics);
+        lex(lexer);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = statistics.register("test lexer");
+        try {
+            assertEquals((long) TEXT.length(), server.getAttribute(name, "Bytes"));
+            assertEquals(statistics.getTokens(), server.getAttribute(name, "Tokens"));
+            assertNotNull(server.getAttribute(name, "TokenCounts"));
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Bytes"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    static List<Token> lex(Lexer lexer) throws IOException {
+        lexer.lex();
+        List<Token> tokens = new ArrayList<>();
+        lexer.forEach(tokens::add);
+        return tokens;
+    }
+}
@@ -2,6 +2,11 @@ import com.ajax.brain.linguist.*;
 import com.ajax.brain.linguist.en.EnglishMatchers;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class LexerTest {
@@ -24,4 +29,38 @@ public class LexerTest {
             System.out.println(t);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void characterPriorityTest() throws Exception {
+        MatcherList matchers = new MatcherList();
+
+        matchers.add(Matcher.getCharacterMatcher('-', 5, TokenType.OPERATOR));
+        matchers.add(Matcher.getCharacterMatcher('-', 2, TokenType.HYPHEN));
+        matchers.add(Matcher.getMultiCharacterMatcher(3, TokenType.PUNCTUATION, '.', '-'));
+
+        Lexer lexer = new Lexer("bottom-left\tof\u007fit.", matchers);
+        lexer.lex();
+
+        Iterator<Token> tokens = lexer.iterator();
+        assertEquals(new Token(TokenType.WORD, "bottom"), tokens.next());
+        assertEquals(new Token(TokenType.HYPHEN, '-'), tokens.next());
+        assertEquals(new Token(TokenType.WORD, "left"), tokens.next());
+        assertEquals(new Token(TokenType.WORD, "of\u007fit"), tokens.next());
+        assertEquals(new Token(TokenType.PUNCTUATION, '.'), tokens.next());
+        assertFalse(tokens.hasNext());
+    }
+
+    @Test
+    public void streamTest() throws Exception {
+        MatcherList matchers = new MatcherList(EnglishMatchers.getDefaultInstance().getMatchers());
+        String text = "Either apples, or oranges: neither 42 pears; nor plums!";
+
+        Lexer lexer = new Lexer(text, matchers);
+        lexer.lex();
+        List<Token> expected = new ArrayList<>();
+        lexer.forEach(expected::add);
+
+        assertEquals(expected, new Lexer(text, matchers).stream().collect(Collectors.toList()));
+        assertEquals(new Token(TokenType.CORRELATIVE_CONJUNCTION, "Either"), new Lexer(text, matchers).stream().findFirst().orElseThrow());
+    }
+}
@@ -1,3 +1,4 @@
+import com.ajax.brain.linguist.CompiledMatcherSet;
 import com.ajax.brain.linguist.Matcher;
 import com.ajax.brain.linguist.MatcherList;
 import com.ajax.brain.linguist.TokenType;
@@ -363,4 +364,94 @@ public class MatcherListTest {
         assertTrue(num == 100);
         assertTrue(matchers.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void freeze() {
+        MatcherList matchers = new MatcherList(testMatchers);
+        matchers.add(Matcher.getCharacterMatcher('.', 3, TokenType.PUNCTUATION));
+
+        CompiledMatcherSet frozen = matchers.freeze();
+        assertSame(frozen, matchers.freeze());
+        assertArrayEquals(matchers.getMatchers(), frozen.getMatchers());
+        assertEquals(1, frozen.getCharacterMatchers().length);
+        assertEquals(testMatchers.length, frozen.getWordMatchers().length);
+
+        frozen.getMatchers()[0] = null;
+        assertNotNull(frozen.getMatchers()[0]);
+
+        matchers.add(Matcher.getSimpleMatcher("and", -1, TokenType.COORDINATING_CONJUNCTION, true));
+        CompiledMatcherSet refrozen = matchers.freeze();
+        assertNotSame(frozen, refrozen);
+        assertEquals(testMatchers.length + 1, frozen.size());
+        assertEquals(testMatchers.length + 2, refrozen.size());
+        assertSame(refrozen.getMatchers()[0], refrozen.match("AND"));
+
+        matchers.clear();
+        assertEquals(0, matchers.freeze().size());
+    }
+
+    @Test
+    public void addAllMatchesAdd() {
+        Random random = new Random(12);
+        Matcher[] lexicon = new Matcher[50000];
+        for(int x = 0; x < lexicon.length; x++) {
+            lexicon[x] = Matcher.getSimpleMatcher("word" + x, random.nextInt(20), TokenType.WORD, false);
+        }
+
+        MatcherList one = new MatcherList();
+        MatcherList bulk = new MatcherList();
+        for(int x = 0; x < 1000; x++) {
+            one.add(lexicon[x]);
+        }
+        bulk.addAll(Arrays.copyOf(lexicon, 1000));
+        for(int x = 1000; x < lexicon.length; x++) {
+            one.add(lexicon[x]);
+        }
+        bulk.addAll(Arrays.asList(lexicon).subList(1000, lexicon.length));
+
+        bulk.checkIfSorted();
+        assertEquals(lexicon.length, bulk.size());
+        assertArrayEquals(one.getMatchers(), bulk.getMatchers());
+        assertFalse(bulk.addAll(new Matcher[]{null}));
+
+        Matcher removed = bulk.remove(10);
+        assertEquals(lexicon.length - 1, bulk.size());
+        assertFalse(bulk.contains(removed));
+        bulk.set(0, removed);
+        assertEquals(lexicon.length - 1, bulk.size());
+        bulk.checkIfSorted();
+    }
+
+    @Test
+    public void indexes() {
+        MatcherList matchers = new MatcherList(testMatchers);
+        Matcher hyphen = Matcher.getCharacterMatcher('-', 200, TokenType.HYPHEN);
+        Matcher dash = Matcher.getCharacterMatcher('~', 201, TokenType.HYPHEN);
+        matchers.add(dash);
+        matchers.add(hyphen);
+
+        assertEquals(List.of(hyphen, dash), matchers.getMatchers(TokenType.HYPHEN));
+        assertSame(hyphen, matchers.getFirstMatcher(TokenType.HYPHEN));
+        assertNull(matchers.getFirstMatcher(TokenType.NUMBER));
+        assertEquals(testMatchers.length, matchers.getMatchers(TokenType.WORD).size());
+        assertThrows(UnsupportedOperationException.class, () -> matchers.getMatchers(TokenType.HYPHEN).clear());
+
+        int[] priorities = matchers.getPriorities();
+        int total = 0;
+        for(int x = 0; x < priorities.length; x++) {
+            if(x > 0)
+                assertTrue(priorities[x - 1] < priorities[x]);
+            for(Matcher matcher: matchers.getMatchersWithPriority(priorities[x])) {
+                assertEquals(priorities[x], matcher.getPriority());
+                total++;
+            }
+        }
+        assertEquals(matchers.size(), total);
+        assertTrue(matchers.getMatchersWithPriority(-5).isEmpty());
+
+        matchers.remove(hyphen);
+        assertEquals(List.of(dash), matchers.getMatchers(TokenType.HYPHEN));
+        assertEquals(List.of(dash), matchers.getMatchersWithPriority(201));
+        assertTrue(matchers.getMatchersWithPriority(200).isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+import com.ajax.brain.linguist.*;
+import com.ajax.brain.linguist.en.EnglishMatchers;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatcherProfileTest {
+    static final String TEXT = "the cat and the dog saw the 3 birds, then the 12 fish";
+
+    @Test
+    void countsTriesAndHits() throws IOException {
+        MatcherList matchers = new MatcherList(EnglishMatchers.getDefaultInstance().getMatchers());
+        Matcher the = Matcher.getSimpleMatcher("the", 5, TokenType.TEST, false);
+        Matcher comma = Matcher.getCharacterMatcher(',', -1, TokenType.LIST_SEPARATOR);
+        matchers.add(the);
+        matchers.add(comma);
+
+        Lexer lexer = new Lexer(TEXT, matchers);
+        MatcherProfile profile = new MatcherProfile(matchers.freeze());
+        lexer.setProfile(profile);
+        lexer.lex();
+
+        assertEquals(4, profile.getHits(the));
+        assertEquals(1, profile.getHits(comma));
+        assertEquals(1.0, profile.getHitRate(the));
+        assertEquals(0, profile.getHits(Matcher.getSimpleMatcher("the", 5, TokenType.TEST, false)));
+
+        profile.reset();
+        assertEquals(0, profile.getTries(the));
+        assertThrows(IllegalArgumentException.class, () -> lexer.setProfile(new MatcherProfile(new CompiledMatcherSet(matchers))));
+    }
+
+    @Test
+    void reorderKeepsTokens() throws IOException {
+        Matcher twelve = Matcher.getRegexMatcher(5, TokenType.NUMBER, false, "^(12|x)$");
+        Matcher cat = Matcher.getSimpleMatcher("cat", 5, TokenType.WORD, false);
+        Matcher digit = Matcher.getRegexMatcher(5, TokenType.NUMBER, false, "^[0-9]$");
+        Matcher words = Matcher.getMultiWordMatcher(5, TokenType.TEST, false, "12", "the", "then");
+
+        MatcherList matchers = new MatcherList();
+        matchers.addAll(words, digit, cat, twelve); //Like add, every Matcher goes in front of the ones with the same priority
+        assertEquals(List.of(twelve, cat, digit, words), List.of(matchers.getMatchers()));
+
+        MatcherProfile profile = new MatcherProfile(matchers.freeze());
+        List<Token> expected = lex(new Lexer(TEXT, matchers), profile);
+        assertEquals(5, profile.getHits(words));
+        assertEquals(11, profile.getTries(digit));
+        assertEquals(1, profile.getHits(digit));
+
+        assertTrue(matchers.reorder(profile));
+        //The words can pass the Matchers they can't overlap with but not the one that also matches "12"
+        assertEquals(List.of(twelve, words, cat, digit), List.of(matchers.getMatchers()));
+
+        profile = new MatcherProfile(matchers.freeze());
+        assertEquals(expected, lex(new Lexer(TEXT, matchers), profile));
+        assertEquals(6, profile.getTries(digit));
+        assertFalse(matchers.reorder(profile));
+    }
+
+    static List<Token> lex(Lexer lexer, MatcherProfile profile) throws IOException {
+        lexer.setProfile(profile);
+        lexer.lex();
+        List<Token> tokens = new ArrayList<>();
+        lexer.forEach(tokens::add);
+        return tokens;
+    }
+}
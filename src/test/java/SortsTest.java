@@ -3,9 +3,13 @@ import com.ajax.brain.utils.sorts.*;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public class SortsTest {
     static final Integer[] ints = new Integer[10000];
     static final Integer[] semiSorted;
@@ -29,19 +33,333 @@ public class SortsTest {
     public void testSort() {
         timeFullArraySort(QuickSort::getInstance);
         timeFullArraySort(MergeSort::getInstance);
+        timeFullArraySort(MergeSort::getBottomUpInstance);
         timeFullArraySort(BubbleSort::getInstance);
         timeFullArraySort(InsertionSort::getInstance);
         timeFullArraySort(RadixSort::getInstance);
         timeFullArraySort(TreeSort::getInstance);
+        timeFullArraySort(KeySort::getInstance);
+        timeFullArraySort(HeapSort::getInstance);
+        timeFullArraySort(RunSort::getInstance);
+        timeFullArraySort(ParallelRadixSort::getInstance);
+        timeFullArraySort(ParallelMergeSort::getInstance);
+        timeFullArraySort(ParallelQuickSort::getInstance);
 
         System.out.println();
 
         timeSingleArraySort(QuickSort::getInstance);
         timeSingleArraySort(MergeSort::getInstance);
+        timeSingleArraySort(MergeSort::getBottomUpInstance);
         timeSingleArraySort(BubbleSort::getInstance);
         timeSingleArraySort(InsertionSort::getInstance);
         timeSingleArraySort(RadixSort::getInstance);
         timeSingleArraySort(TreeSort::getInstance);
+        timeSingleArraySort(KeySort::getInstance);
+        timeSingleArraySort(HeapSort::getInstance);
+        timeSingleArraySort(RunSort::getInstance);
+        timeSingleArraySort(ParallelRadixSort::getInstance);
+        timeSingleArraySort(ParallelMergeSort::getInstance);
+        timeSingleArraySort(ParallelQuickSort::getInstance);
+    }
+
+    @Test
+    public void testPrimitiveSorts() {
+        for(IntSort sort: new IntSort[]{IntSort.getQuickSort(), IntSort.getMergeSort(), IntSort.getRadixSort()}) {
+            for(int[] values: intInputs()) {
+                int[] expected = values.clone();
+                Arrays.sort(expected);
+                int[] sorted = values.clone();
+                sort.sort(sorted);
+                assertArrayEquals(expected, sorted, sort.getClass().getSimpleName() + " " + values.length);
+
+                if(values.length > 10) { //Only the range is sorted
+                    expected = values.clone();
+                    Arrays.sort(expected, 3, values.length - 5);
+                    sorted = values.clone();
+                    sort.sort(sorted, 3, values.length - 5);
+                    assertArrayEquals(expected, sorted, sort.getClass().getSimpleName() + " range " + values.length);
+                }
+
+                long[] longs = Arrays.stream(values).asLongStream().map(value -> value * 3_000_000_000L).toArray();
+                long[] expectedLongs = longs.clone();
+                Arrays.sort(expectedLongs);
+                for(LongSort longSort: new LongSort[]{LongSort.getQuickSort(), LongSort.getMergeSort(), LongSort.getRadixSort()}) {
+                    long[] sortedLongs = longs.clone();
+                    longSort.sort(sortedLongs);
+                    assertArrayEquals(expectedLongs, sortedLongs, longSort.getClass().getSimpleName() + " " + values.length);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitiveQuickSortInputs() {
+        int[] values = medianOfThreeKiller(200_000);
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+
+        int[] sorted = values.clone();
+        IntSort.getQuickSort().sort(sorted);
+        assertArrayEquals(expected, sorted);
+
+        long[] longs = Arrays.stream(values).asLongStream().toArray();
+        LongSort.getQuickSort().sort(longs);
+        assertArrayEquals(Arrays.stream(expected).asLongStream().toArray(), longs);
+    }
+
+    @Test
+    public void testKeySortIsStable() {
+        Integer[] values = new Integer[5000];
+        for(int x = 0; x < values.length; x++) {
+            values[x] = ThreadLocalRandom.current().nextInt(-100_000, 100_000);
+        }
+
+        Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+        Integer[] expected = values.clone();
+        Arrays.sort(expected, Representor.toComparator(byHundreds)); //Arrays.sort is stable for objects
+
+        for(LongSort longSort: new LongSort[]{LongSort.getQuickSort(), LongSort.getMergeSort(), LongSort.getRadixSort()}) {
+            Integer[] sorted = values.clone();
+            KeySort.getInstance(byHundreds, longSort).sort(sorted);
+            assertArrayEquals(expected, sorted);
+        }
+
+        //The default only radix sorts the keys
+        Integer[] sorted = values.clone();
+        KeySort.sort(sorted, byHundreds);
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    public void testParallelSorts() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+
+            for(int[] values: intInputs()) {
+                Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+                Integer[] expected = boxed.clone();
+                Arrays.sort(expected, Representor.toComparator(byHundreds)); //Arrays.sort is stable for objects
+
+                for(int threshold: new int[]{2, 64, ParallelMergeSort.DEFAULT_PARALLEL_THRESHOLD}) {
+                    Integer[] sorted = boxed.clone();
+                    ParallelMergeSort.getInstance(byHundreds, pool, threshold).sort(sorted);
+                    assertArrayEquals(expected, sorted, "ParallelMergeSort " + threshold + " " + values.length);
+
+                    sorted = boxed.clone();
+                    ParallelQuickSort.getInstance(byHundreds, pool, threshold).sort(sorted);
+                    assertTrue(checkIfSorted(byHundreds, sorted), "ParallelQuickSort " + threshold + " " + values.length);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testMergeSortsAreStable() {
+        Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+
+        for(int[] values: intInputs()) {
+            Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+            Integer[] expected = boxed.clone();
+            Arrays.sort(expected, Representor.toComparator(byHundreds)); //Arrays.sort is stable for objects
+
+            Integer[] sorted = boxed.clone();
+            MergeSort.sort(sorted, byHundreds);
+            assertArrayEquals(expected, sorted, "MergeSort " + values.length);
+
+            sorted = boxed.clone();
+            MergeSort.getBottomUpInstance(byHundreds).sort(sorted);
+            assertArrayEquals(expected, sorted, "bottom up MergeSort " + values.length);
+        }
+    }
+
+    @Test
+    public void testRadixSortSignedAndStable() {
+        Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+
+        for(int[] values: intInputs()) {
+            Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+
+            Integer[] expected = boxed.clone();
+            Arrays.sort(expected, Representor.toComparator(byHundreds));
+            Integer[] sorted = boxed.clone();
+            RadixSort.sort(sorted, byHundreds);
+            assertArrayEquals(expected, sorted, "RadixSort " + values.length);
+
+            expected = boxed.clone();
+            Arrays.sort(expected);
+            sorted = boxed.clone();
+            RadixSort.sort(sorted, Integer::intValue);
+            assertArrayEquals(expected, sorted, "RadixSort " + values.length);
+        }
+    }
+
+    @Test
+    public void testParallelRadixSort() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+            int[][] inputs = Arrays.copyOf(intInputs(), intInputs().length + 1);
+            inputs[inputs.length - 1] = ThreadLocalRandom.current().ints(200_000, -1_000_000, 1_000_000).toArray();
+
+            for(int[] values: inputs) {
+                Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+                Integer[] expected = boxed.clone();
+                Arrays.sort(expected, Representor.toComparator(byHundreds));
+
+                Integer[] sorted = boxed.clone();
+                ParallelRadixSort.getInstance(byHundreds, pool, 2).sort(sorted);
+                assertArrayEquals(expected, sorted, "ParallelRadixSort " + values.length);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testTreeSortBalancedAndStable() {
+        Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+
+        for(int[] values: intInputs()) {
+            Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+            Integer[] expected = boxed.clone();
+            Arrays.sort(expected, Representor.toComparator(byHundreds));
+
+            Integer[] sorted = boxed.clone();
+            TreeSort.sort(sorted, byHundreds);
+            assertArrayEquals(expected, sorted, "TreeSort " + values.length);
+        }
+
+        //Sorted input used to build a tree as deep as the array is long
+        Integer[] ascending = new Integer[200_000];
+        Integer[] descending = new Integer[ascending.length];
+        for(int x = 0; x < ascending.length; x++) {
+            ascending[x] = x;
+            descending[x] = ascending.length - x;
+        }
+        TreeSort.sort(ascending, Integer::intValue);
+        TreeSort.sort(descending, Integer::intValue);
+        assertTrue(checkIfSorted(Integer::intValue, ascending), "TreeSort ascending");
+        assertTrue(checkIfSorted(Integer::intValue, descending), "TreeSort descending");
+    }
+
+    @Test
+    public void testRunSortIsStable() {
+        Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        //Ascending and descending runs of random lengths, long enough to gallop and to stack up many runs
+        int[] runs = new int[100_000];
+        for(int x = 0; x < runs.length;) {
+            int length = Math.min(random.nextInt(1, 2000), runs.length - x);
+            int start = random.nextInt(-1_000_000, 1_000_000);
+            int step = random.nextBoolean()? 7: -7;
+            for(int y = 0; y < length; y++) {
+                runs[x++] = start + y * step;
+            }
+        }
+
+        //Sorted with a few values swapped
+        int[] nearlySorted = random.ints(100_000, -1_000_000, 1_000_000).sorted().toArray();
+        for(int x = 0; x < 100; x++) {
+            int i = random.nextInt(nearlySorted.length);
+            int j = random.nextInt(nearlySorted.length);
+            int temp = nearlySorted[i];
+            nearlySorted[i] = nearlySorted[j];
+            nearlySorted[j] = temp;
+        }
+
+        int[][] inputs = Arrays.copyOf(intInputs(), intInputs().length + 2);
+        inputs[inputs.length - 2] = runs;
+        inputs[inputs.length - 1] = nearlySorted;
+
+        for(int[] values: inputs) {
+            Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+            Integer[] expected = boxed.clone();
+            Arrays.sort(expected, Representor.toComparator(byHundreds));
+
+            Integer[] sorted = boxed.clone();
+            RunSort.sort(sorted, byHundreds);
+            assertArrayEquals(expected, sorted, "RunSort " + values.length);
+        }
+    }
+
+    @Test
+    public void testQuickSortInputs() {
+        int n = 200_000;
+        Integer[] organPipe = new Integer[n];
+        Integer[] allEqual = new Integer[n];
+        for(int x = 0; x < n; x++) {
+            organPipe[x] = Math.min(x, n - x);
+            allEqual[x] = 7;
+        }
+
+        Integer[] medianKiller = Arrays.stream(medianOfThreeKiller(n)).boxed().toArray(Integer[]::new);
+
+        Representor<Integer> byHundreds = value -> Math.floorDiv(value, 100);
+        for(Integer[] values: new Integer[][]{organPipe, allEqual, medianKiller}) {
+            Integer[] sorted = values.clone();
+            QuickSort.sort(sorted, Integer::intValue);
+            assertTrue(checkIfSorted(Integer::intValue, sorted));
+
+            for(int threshold: new int[]{2, ParallelQuickSort.DEFAULT_PARALLEL_THRESHOLD}) {
+                sorted = values.clone();
+                ParallelQuickSort.getInstance(Integer::intValue, ForkJoinPool.commonPool(), threshold).sort(sorted);
+                assertTrue(checkIfSorted(Integer::intValue, sorted), "ParallelQuickSort " + threshold);
+            }
+        }
+
+        for(int[] values: intInputs()) {
+            Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+
+            Integer[] sorted = boxed.clone();
+            QuickSort.sort(sorted, byHundreds);
+            assertTrue(checkIfSorted(byHundreds, sorted), "QuickSort " + values.length);
+
+            sorted = boxed.clone();
+            HeapSort.sort(sorted, byHundreds);
+            assertTrue(checkIfSorted(byHundreds, sorted), "HeapSort " + values.length);
+
+            if(values.length > 10) { //Only the range is sorted
+                sorted = boxed.clone();
+                HeapSort.getInstance(byHundreds).sort(sorted, 3, values.length - 5);
+                assertTrue(checkIfSorted(byHundreds, Arrays.copyOfRange(sorted, 3, values.length - 5)), "HeapSort range " + values.length);
+                assertArrayEquals(Arrays.copyOfRange(boxed, values.length - 5, values.length), Arrays.copyOfRange(sorted, values.length - 5, values.length));
+            }
+        }
+    }
+
+    /**
+     * Musser's median of three killer, every median of three pivot splits off two values
+     */
+    static int[] medianOfThreeKiller(int n) {
+        int[] values = new int[n];
+        int k = n / 2;
+        for(int i = 1; i <= k; i++) {
+            if(i % 2 == 1) {
+                values[i - 1] = i;
+                values[i] = k + i;
+            }
+            values[k + i - 1] = 2 * i;
+        }
+        return values;
+    }
+
+    static int[][] intInputs() {
+        int[] random = ThreadLocalRandom.current().ints(10000).toArray();
+        random[0] = Integer.MIN_VALUE;
+        random[1] = Integer.MAX_VALUE;
+        int[] sorted = random.clone();
+        Arrays.sort(sorted);
+        int[] reversed = new int[sorted.length];
+        for(int x = 0; x < sorted.length; x++) {
+            reversed[x] = sorted[sorted.length - 1 - x];
+        }
+        int[] fewUnique = ThreadLocalRandom.current().ints(10000, -3, 3).toArray();
+
+        return new int[][]{{}, {1}, {2, 1}, ThreadLocalRandom.current().ints(25, -50, 50).toArray(), random, sorted, reversed, fewUnique, new int[1000]};
     }
 
     public static void timeFullArraySort(Function<Representor<Integer>, Sort<Integer>> makeSort) {
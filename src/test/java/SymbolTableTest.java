@@ -0,0 +1,150 @@
+import com.ajax.brain.linguist.Lexer;
+import com.ajax.brain.linguist.MatcherList;
+import com.ajax.brain.linguist.SymbolTable;
+import com.ajax.brain.linguist.Token;
+import com.ajax.brain.linguist.TokenType;
+import com.ajax.brain.linguist.en.EnglishMatchers;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+    static final MatcherList MATCHERS = new MatcherList(EnglishMatchers.getDefaultInstance().getMatchers());
+
+    static final String TEXT = "the cat and the dog and the bird, the end";
+
+    @Test
+    void repeatedWordsShareValues() throws IOException {
+        SymbolTable table = new SymbolTable();
+        Lexer lexer = new Lexer(new ByteArrayInputStream(TEXT.getBytes()), MATCHERS, 5);
+        lexer.setSymbolTable(table);
+        List<Token> tokens = lex(lexer);
+
+        Lexer plain = new Lexer(TEXT, MATCHERS);
+        assertEquals(lex(plain), tokens);
+
+        assertSame(tokens.get(0).getValue(), tokens.get(3).getValue());
+        assertSame(tokens.get(3).getValue(), tokens.get(6).getValue());
+        assertSame(tokens.get(0).getValue(), tokens.get(9).getValue());
+
+        //Only words are interned
+        assertEquals(TokenType.COORDINATING_CONJUNCTION, tokens.get(2).getType());
+        assertEquals(SymbolTable.NO_SYMBOL, table.find("and"));
+    }
+
+    @Test
+    void parallelWorkersShareValues() throws IOException {
+        String text = (TEXT + " ").repeat(200);
+        SymbolTable table = new SymbolTable();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        Lexer lexer = new Lexer(text, MATCHERS);
+        lexer.setSymbolTable(table);
+        lexer.lexParallel(pool, 64);
+        pool.shutdown();
+
+        List<Token> tokens = new ArrayList<>();
+        lexer.forEach(tokens::add);
+        assertEquals(lex(new Lexer(text, MATCHERS)), tokens);
+
+        Map<String, String> values = new HashMap<>();
+        for(Token token: tokens) {
+            if(token.getType() == TokenType.WORD)
+                assertSame(values.computeIfAbsent(token.getValue(), value -> value), token.getValue(), token.getValue());
+        }
+        assertEquals(values.size(), table.size());
+    }
+
+    @Test
+    void idsAreStable() {
+        SymbolTable table = new SymbolTable();
+        int the = table.intern("the");
+        int and = table.intern("and");
+
+        assertNotEquals(the, and);
+        assertEquals(the, table.intern("the"));
+        assertEquals(the, table.find("the"));
+        assertEquals(SymbolTable.NO_SYMBOL, table.find("or"));
+        assertEquals("and", table.get(and));
+        assertEquals(2, table.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(2));
+    }
+
+    @Test
+    void manyWords() {
+        SymbolTable table = new SymbolTable(100000);
+
+        for(int x = 0; x < 50000; x++) {
+            assertEquals(x, table.intern("word" + x));
+        }
+        for(int x = 0; x < 50000; x++) {
+            assertEquals(x, table.find("word" + x));
+            assertEquals("word" + x, table.get(x));
+        }
+    }
+
+    @Test
+    void boundedTable() throws IOException {
+        SymbolTable table = new SymbolTable(2);
+        assertEquals(0, table.intern("the"));
+        assertEquals(1, table.intern("cat"));
+        assertEquals(SymbolTable.NO_SYMBOL, table.intern("dog"));
+        assertEquals(SymbolTable.NO_SYMBOL, table.intern("x".repeat(1000)));
+        assertEquals(2, table.size());
+
+        Lexer lexer = new Lexer(TEXT, MATCHERS);
+        lexer.setSymbolTable(table);
+        assertEquals(lex(new Lexer(TEXT, MATCHERS)), lex(lexer));
+    }
+
+    @Test
+    void fullTableLookups() throws InterruptedException {
+        SymbolTable table = new SymbolTable(100);
+        for(int x = 0; x < 100; x++) {
+            assertEquals(x, table.intern("word" + x));
+        }
+
+        //Once the table is full new words are turned away without the lock, holding it doesn't block them
+        int[] symbols = new int[2];
+        synchronized (table) {
+            Thread thread = new Thread(() -> {
+                for(int x = 100; x < 10000; x++) {
+                    if(table.intern("word" + x) != SymbolTable.NO_SYMBOL)
+                        symbols[0]++;
+                }
+                symbols[1] = table.intern("word99");
+            });
+            thread.start();
+            thread.join(10000);
+            assertFalse(thread.isAlive(), "A full table doesn't lock");
+        }
+        assertEquals(0, symbols[0]);
+        assertEquals(99, symbols[1]);
+        assertEquals(100, table.size());
+        assertEquals(SymbolTable.NO_SYMBOL, table.find("word100"));
+    }
+
+    @Test
+    void charsetMustMatch() {
+        Lexer lexer = new Lexer(TEXT, MATCHERS);
+        SymbolTable table = new SymbolTable(10, StandardCharsets.UTF_16);
+
+        assertThrows(IllegalArgumentException.class, () -> lexer.setSymbolTable(table));
+    }
+
+    static List<Token> lex(Lexer lexer) throws IOException {
+        lexer.lex();
+        List<Token> tokens = new ArrayList<>();
+        lexer.forEach(tokens::add);
+        return tokens;
+    }
+}